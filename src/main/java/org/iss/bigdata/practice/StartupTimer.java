@@ -0,0 +1,63 @@
+package org.iss.bigdata.practice;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long each startup phase takes and logs the breakdown
+ */
+public class StartupTimer {
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimer.class);
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> phaseMillis = new LinkedHashMap<>();
+
+    public void time(String phase, Runnable action) {
+        long phaseStart = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            record(phase, phaseStart);
+        }
+    }
+
+    public CompletableFuture<Void> timeAsync(String phase, Runnable action, Executor executor) {
+        return CompletableFuture.runAsync(() -> time(phase, action), executor);
+    }
+
+    private synchronized void record(String phase, long phaseStartNanos) {
+        phaseMillis.put(phase, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - phaseStartNanos));
+    }
+
+    /**
+     * Log a phase that finishes after the breakdown was reported, such as the bot registration
+     * running on the session thread. Only the first occurrence of a phase belongs to the startup.
+     */
+    public synchronized void reportLatePhase(String phase, Duration duration) {
+        if (phaseMillis.putIfAbsent(phase, duration.toMillis()) != null) {
+            return;
+        }
+        logger.info(String.format("Startup phase %s took %d ms, finished %d ms after JVM start",
+                phase, duration.toMillis(), ManagementFactory.getRuntimeMXBean().getUptime()));
+    }
+
+    public synchronized void report() {
+        StringBuilder report = new StringBuilder("Startup timing breakdown:\n");
+        // JVM uptime minus the time spent in main is the JVM boot and class loading before main
+        long mainMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        long uptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        report.append(String.format("  %-28s %6d ms%n", "jvm-boot", Math.max(0, uptimeMillis - mainMillis)));
+        for (Map.Entry<String, Long> phase : phaseMillis.entrySet()) {
+            report.append(String.format("  %-28s %6d ms%n", phase.getKey(), phase.getValue()));
+        }
+        report.append(String.format("  %-28s %6d ms", "total", uptimeMillis));
+        logger.info(report.toString());
+    }
+}
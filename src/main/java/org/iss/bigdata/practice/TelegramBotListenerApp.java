@@ -1,26 +1,111 @@
 package org.iss.bigdata.practice;
 
+import org.iss.bigdata.practice.clients.ElasticsearchClient;
 import org.iss.bigdata.practice.clients.HTTPEndpointClient;
 import org.iss.bigdata.practice.clients.TelegramBotSessionManager;
+import org.iss.bigdata.practice.config.StartupConfig;
+import org.iss.bigdata.practice.service.MusicRecommendationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 // src/main/java/org/iss/bigdata/practice/TelegramBotListenerApp.java
 public class TelegramBotListenerApp {
     private static final Logger logger = LoggerFactory.getLogger(TelegramBotListenerApp.class);
 
     public static void main(String[] args) {
         logger.info("Starting Telegram Kafka Producer Application");
+        StartupTimer timer = new StartupTimer();
+        StartupConfig startupConfig = StartupConfig.loadFromEnvironment();
+
+        if (startupConfig.isCdsTrainingRun()) {
+            trainingRun(timer);
+            timer.report();
+            // the JVM writes the AppCDS archive on exit
+            System.exit(0);
+        }
+
+        if (startupConfig.isFastStartup()) {
+            fastStart(timer, startupConfig);
+        } else {
+            defaultStart(timer);
+        }
+        timer.report();
+    }
 
+    private static void defaultStart(StartupTimer timer) {
         // singleton instances
         HTTPEndpointClient httpEndpointListener = HTTPEndpointClient.getInstance();
         TelegramBotSessionManager botSessionManager = TelegramBotSessionManager.getInstance();
+        // registration finishes on the session thread, after the breakdown below is logged
+        botSessionManager.setRegistrationListener(duration -> timer.reportLatePhase("bot-registration", duration));
         // start the bot session
-        botSessionManager.start();
+        timer.time("bot-session-start", botSessionManager::start);
         // shutdown hook
         Runtime.getRuntime().addShutdownHook(new Thread(botSessionManager::close));
         // start the HTTP endpoint listener
-        httpEndpointListener.start();
+        timer.time("http-server-start", httpEndpointListener::start);
+    }
 
+    /**
+     * Initialize the clients in parallel and warm up the Kafka metadata and the Elasticsearch
+     * connection before the bot session starts, so the first messages do not pay for it
+     */
+    private static void fastStart(StartupTimer timer, StartupConfig startupConfig) {
+        TelegramBotSessionManager botSessionManager = TelegramBotSessionManager.getInstance();
+        Runtime.getRuntime().addShutdownHook(new Thread(botSessionManager::close));
+        botSessionManager.setRegistrationListener(duration -> timer.reportLatePhase("bot-registration", duration));
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CompletableFuture<Void> warmUp = CompletableFuture.allOf(
+                timer.timeAsync("warm-up/kafka-metadata", () -> botSessionManager.warmUpKafka(true), executor),
+                timer.timeAsync("warm-up/elasticsearch", () -> ElasticsearchClient.getInstance().warmUp(), executor),
+                timer.timeAsync("warm-up/recommendation-service", MusicRecommendationService::getInstance, executor)
+        );
+        // the control server does not depend on the warm-up
+        timer.time("http-server-start", () -> HTTPEndpointClient.getInstance().start());
+        awaitWarmUp(warmUp, startupConfig);
+        // warm-ups that outlived the timeout keep running, the session start skips the ones in flight
+        executor.shutdown();
+        timer.time("bot-session-start", botSessionManager::start);
+    }
+
+    private static void awaitWarmUp(CompletableFuture<Void> warmUp, StartupConfig startupConfig) {
+        try {
+            warmUp.get(startupConfig.getWarmUpTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Warm-up did not finish within {}, starting the bot session anyway",
+                    startupConfig.getWarmUpTimeout());
+        } catch (ExecutionException e) {
+            logger.warn("Warm-up failed, starting the bot session anyway", e.getCause());
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while waiting for warm-up");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Load the classes used at runtime without contacting any external service: the clients,
+     * the bot with its filter chain and JSON mapping, and the HTTP control server
+     */
+    private static void trainingRun(StartupTimer timer) {
+        logger.info("Running AppCDS training run");
+        TelegramBotSessionManager botSessionManager = TelegramBotSessionManager.getInstance();
+        timer.time("training/kafka-producer", () -> botSessionManager.warmUpKafka(false));
+        timer.time("training/elasticsearch", ElasticsearchClient::getInstance);
+        timer.time("training/recommendation-service", MusicRecommendationService::getInstance);
+        timer.time("training/bot-session", botSessionManager::loadSessionClasses);
+        timer.time("training/http-server", () -> {
+            HTTPEndpointClient httpEndpointClient = HTTPEndpointClient.getInstance();
+            httpEndpointClient.start();
+            httpEndpointClient.stop();
+        });
+        timer.time("training/close", botSessionManager::close);
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package org.iss.bigdata.practice.clients;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.iss.bigdata.practice.config.RuntimeTunables;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -11,16 +12,18 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Client to interact with Elasticsearch for music recommendations
  */
 public class ElasticsearchClient {
     private static final Logger logger = LoggerFactory.getLogger(ElasticsearchClient.class);
-    private static final ElasticsearchClient INSTANCE = new ElasticsearchClient();
     private final HttpClient httpClient;
-    private final String elasticsearchUrl;
+    private final RuntimeTunables tunables;
     private final ObjectMapper objectMapper;
+    private volatile boolean warmedUp = false;
+    private final AtomicBoolean warmUpRunning = new AtomicBoolean(false);
 
     private ElasticsearchClient() {
         // Configure timeout settings
@@ -28,16 +31,58 @@ public class ElasticsearchClient {
                 .connectTimeout(java.time.Duration.ofSeconds(10))
                 .build();
 
-        // Default to connecting to our ELK stack in Kubernetes
-        this.elasticsearchUrl = System.getenv().getOrDefault("ELASTICSEARCH_URL",
-                "http://elasticsearch.elk-ns.svc.cluster.local:9200");
+        // The URL and request timeout are read on every request so they can be tuned at runtime
+        this.tunables = RuntimeTunables.getInstance();
         this.objectMapper = new ObjectMapper();
 
-        logger.info("ElasticsearchClient initialized with URL: {}", elasticsearchUrl);
+        logger.info("ElasticsearchClient initialized with URL: {}", tunables.getElasticsearchUrl());
     }
 
     public static ElasticsearchClient getInstance() {
-        return INSTANCE;
+        return Holder.INSTANCE;
+    }
+
+    // Created on first use, so clients can be initialized lazily and in parallel at startup
+    private static class Holder {
+        private static final ElasticsearchClient INSTANCE = new ElasticsearchClient();
+    }
+
+    /**
+     * Open the connection to Elasticsearch ahead of the first recommendation request.
+     * Does nothing once a warm-up has succeeded or while another one is running.
+     *
+     * @return true if Elasticsearch answered with a successful status code
+     */
+    public boolean warmUp() {
+        if (warmedUp) {
+            return true;
+        }
+        if (!warmUpRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(tunables.getElasticsearchUrl() + "/"))
+                    .timeout(java.time.Duration.ofMillis(tunables.getElasticsearchRequestTimeoutMs()))
+                    .GET()
+                    .build();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            logger.info("Elasticsearch warm-up finished with status code: {}", response.statusCode());
+            warmedUp = response.statusCode() >= 200 && response.statusCode() < 300;
+            return warmedUp;
+        } catch (IOException | InterruptedException e) {
+            logger.warn("Elasticsearch warm-up failed, the connection will be opened on first use", e);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        } finally {
+            warmUpRunning.set(false);
+        }
+    }
+
+    public boolean isWarmedUp() {
+        return warmedUp;
     }
 
     /**
@@ -66,10 +111,11 @@ public class ElasticsearchClient {
                     "  ]\n" +
                     "}";
 
-            String searchUrl = elasticsearchUrl + "/recommendations-*/_search";
+            String searchUrl = tunables.getElasticsearchUrl() + "/recommendations-*/_search";
 
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(searchUrl))
+                    .timeout(java.time.Duration.ofMillis(tunables.getElasticsearchRequestTimeoutMs()))
                     .header("Content-Type", "application/json")
                     .POST(HttpRequest.BodyPublishers.ofString(requestBody))
                     .build();
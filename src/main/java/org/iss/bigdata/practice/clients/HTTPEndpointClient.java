@@ -1,11 +1,20 @@
 package org.iss.bigdata.practice.clients;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
 
+import org.iss.bigdata.practice.config.RuntimeTunables;
+import org.iss.bigdata.practice.filter.MessageFilterChain;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,24 +23,35 @@ public class HTTPEndpointClient {
     private static final int PORT = 8080;
     private static final String SHUTDOWN_PATH = "/shutdown";
     private static final String STARTUP_PATH = "/start";
+    private static final String TUNABLES_PATH = "/tunables";
+    private static final String FILTERS_PATH = "/filters";
     private final TelegramBotSessionManager botSession;
-    private static final HTTPEndpointClient INSTANCE = new HTTPEndpointClient();
+    private final RuntimeTunables tunables;
+    private final ObjectMapper objectMapper;
+    private HttpServer server;
 
     private HTTPEndpointClient() {
         this.botSession = TelegramBotSessionManager.getInstance();
+        this.tunables = RuntimeTunables.getInstance();
+        this.objectMapper = new ObjectMapper();
     }
 
     public static HTTPEndpointClient getInstance() {
-        return INSTANCE;
+        return Holder.INSTANCE;
     }
 
-    public void start() {
+    private static class Holder {
+        private static final HTTPEndpointClient INSTANCE = new HTTPEndpointClient();
+    }
+
+    public synchronized void start() {
         // blocking the main thread
         try {
-            HttpServer server = HttpServer.create(new InetSocketAddress(PORT), 0);
+            server = HttpServer.create(new InetSocketAddress(PORT), 0);
             server.createContext(SHUTDOWN_PATH, exchange -> {
                 String response;
-                if (!botSession.getIsStarted()) {
+                // a standby has no session yet but still takes part in the election
+                if (!botSession.isActive()) {
                     response = "Bot is already stopped";
                     logger.info("Shutdown requested but bot is already stopped");
                 } else {
@@ -46,13 +66,15 @@ public class HTTPEndpointClient {
             });
             server.createContext(STARTUP_PATH, exchange -> {
                 String response;
-                if (botSession.getIsStarted()) {
+                if (botSession.isActive()) {
                     response = "Bot is already started";
                     logger.info("Startup requested but bot is already running");
                 } else {
+                    // the shutdown hook registered at startup also covers a restarted bot
                     botSession.start();
-                    Runtime.getRuntime().addShutdownHook(new Thread(botSession::close));
-                    response = "Bot started";
+                    response = botSession.isLeaderElectionEnabled()
+                            ? "Bot started as standby, it polls Telegram once it holds the lease"
+                            : "Bot started";
                     logger.info("Bot started via HTTP start");
                 }
                 exchange.sendResponseHeaders(200, response.length());
@@ -60,11 +82,75 @@ public class HTTPEndpointClient {
                     os.write(response.getBytes());
                 }
             });
-            server.setExecutor(null);
+            // GET returns the current tunables, POST/PUT a JSON object of tunables to change
+            server.createContext(TUNABLES_PATH, this::handleTunables);
+            // message counts of the pre-Kafka filter chain, with the drops per filter
+            server.createContext(FILTERS_PATH, exchange ->
+                    sendJson(exchange, 200, MessageFilterChain.getInstance().stats()));
+            // handlers such as a producer swap may block, so each request gets its own virtual thread
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
             server.start();
             logger.info("HTTP control server started on port {}", PORT);
         } catch (IOException e) {
             logger.error("Failed to start HTTP control server", e);
         }
     }
+
+    /**
+     * Stop the control server, used by the AppCDS training run after loading its classes
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+            logger.info("HTTP control server stopped");
+        }
+    }
+
+    private void handleTunables(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        if ("GET".equals(method)) {
+            sendJson(exchange, 200, tunables.snapshot());
+            return;
+        }
+        if (!"POST".equals(method) && !"PUT".equals(method)) {
+            sendJson(exchange, 405, Map.of("error", "Method not allowed: " + method));
+            return;
+        }
+
+        Map<String, String> changes = new LinkedHashMap<>();
+        try (InputStream is = exchange.getRequestBody()) {
+            JsonNode body = objectMapper.readTree(is);
+            if (body == null || !body.isObject()) {
+                sendJson(exchange, 400, Map.of("error", "Request body must be a JSON object"));
+                return;
+            }
+            body.fields().forEachRemaining(field -> changes.put(field.getKey(), field.getValue().asText()));
+        } catch (IOException e) {
+            sendJson(exchange, 400, Map.of("error", "Invalid JSON: " + e.getMessage()));
+            return;
+        }
+
+        try {
+            logger.info("Tunables update requested via HTTP: {}", changes);
+            tunables.update(changes);
+            sendJson(exchange, 200, tunables.snapshot());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected tunables update: {}", e.getMessage());
+            sendJson(exchange, 400, Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            // applying the change failed, e.g. the new Kafka producer could not be created
+            logger.error("Failed to apply tunables update: {}", e.getMessage());
+            sendJson(exchange, 500, Map.of("error", e.getMessage()));
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int statusCode, Object body) throws IOException {
+        byte[] response = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, response.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(response);
+        }
+    }
 }
\ No newline at end of file
@@ -2,58 +2,203 @@
 package org.iss.bigdata.practice.clients;
 
 import org.iss.bigdata.practice.config.Config;
+import org.iss.bigdata.practice.config.LeaderElectionConfig;
+import org.iss.bigdata.practice.config.PartitioningConfig;
+import org.iss.bigdata.practice.config.RuntimeTunables;
+import org.iss.bigdata.practice.lease.FileLeaseBackend;
+import org.iss.bigdata.practice.lease.KubernetesLeaseBackend;
+import org.iss.bigdata.practice.lease.LeaderElector;
+import org.iss.bigdata.practice.lease.LeaseBackend;
 import org.iss.bigdata.practice.service.ProjectKafkaProducer;
 import org.iss.bigdata.practice.service.TelegramBotListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.User;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.generics.BotSession; // Import BotSession
 import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
 public class TelegramBotSessionManager implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(TelegramBotSessionManager.class);
     private Thread botThread;
     private TelegramBotListener bot;
     private volatile Boolean isStarted = false; // Make volatile for thread safety
-    private static final TelegramBotSessionManager INSTANCE = new TelegramBotSessionManager();
     private final Config config;
+    private final LeaderElectionConfig leaderElectionConfig;
+    private final PartitioningConfig partitioningConfig;
+    private volatile LeaderElector leaderElector;
+    // Created ahead of the session so a standby can take over without connecting to Kafka first
+    private ProjectKafkaProducer producer;
+    private final Object producerLock = new Object();
+    private volatile boolean kafkaWarmedUp = false;
+    private final AtomicBoolean kafkaWarmUpRunning = new AtomicBoolean(false);
+    private volatile Consumer<Duration> registrationListener = duration -> {
+    };
 
     private volatile BotSession session; // Store the BotSession instance
 
     private TelegramBotSessionManager() {
         this.config = Config.loadFromEnvironment();
-
+        this.leaderElectionConfig = LeaderElectionConfig.loadFromEnvironment();
+        this.partitioningConfig = PartitioningConfig.loadFromEnvironment();
+        RuntimeTunables.getInstance().addListener(this::onTunablesChanged);
     }
 
     public static TelegramBotSessionManager getInstance() {
-        return INSTANCE;
+        return Holder.INSTANCE;
     }
 
-    public void start() {
-        if (isStarted) {
-            logger.warn("Start called but bot session is already started.");
+    private static class Holder {
+        private static final TelegramBotSessionManager INSTANCE = new TelegramBotSessionManager();
+    }
+
+    /**
+     * Start the bot. With leader election enabled this joins the election as a standby
+     * and the session is only started once this replica holds the lease.
+     */
+    public synchronized void start() {
+        if (!leaderElectionConfig.isEnabled()) {
+            startSession();
             return;
         }
-        isStarted = true; // Set state early
-        botThread = Thread.ofVirtual().start(() -> {
+        if (leaderElector == null) {
             try {
-                ProjectKafkaProducer producer = new ProjectKafkaProducer(
+                leaderElector = new LeaderElector(
+                        createLeaseBackend(),
+                        leaderElectionConfig.getHolderIdentity(),
+                        leaderElectionConfig.getLeaseDuration(),
+                        leaderElectionConfig.getRenewInterval(),
+                        this::startSession,
+                        this::stopSession,
+                        this::isSessionAlive
+                );
+            } catch (IOException e) {
+                logger.error("Failed to create the lease backend, bot session not started", e);
+                return;
+            }
+        }
+        // keep the clients warm while waiting for the lease
+        warmUp();
+        warmUpConnectionsInBackground();
+        leaderElector.start();
+    }
+
+    /**
+     * Fetch the Kafka metadata and open the Elasticsearch connection, unless fast startup
+     * or an earlier start already did. Both skip the work while a warm-up is still running.
+     */
+    private void warmUpConnectionsInBackground() {
+        if (kafkaWarmedUp && ElasticsearchClient.getInstance().isWarmedUp()) {
+            return;
+        }
+        Thread.ofVirtual().start(() -> {
+            warmUpKafka(true);
+            ElasticsearchClient.getInstance().warmUp();
+        });
+    }
+
+    private LeaseBackend createLeaseBackend() throws IOException {
+        String backend = leaderElectionConfig.getBackend();
+        if (LeaderElectionConfig.BACKEND_KUBERNETES.equalsIgnoreCase(backend)) {
+            return new KubernetesLeaseBackend(leaderElectionConfig.getLeaseName());
+        }
+        if (LeaderElectionConfig.BACKEND_FILE.equalsIgnoreCase(backend)) {
+            return new FileLeaseBackend(Path.of(leaderElectionConfig.getLeaseFilePath()));
+        }
+        throw new IllegalStateException("Unknown lease backend: " + backend);
+    }
+
+    /**
+     * Create the Kafka producer and Elasticsearch client if they do not exist yet
+     */
+    private ProjectKafkaProducer warmUp() {
+        ElasticsearchClient.getInstance();
+        synchronized (producerLock) {
+            if (producer == null) {
+                producer = new ProjectKafkaProducer(
                         config.getKafkaBootstrapServers(),
                         config.getSaslUsername(),
-                        config.getSaslPassword()
+                        config.getSaslPassword(),
+                        partitioningConfig
                 );
                 logger.info("Kafka producer initialized successfully");
+            }
+            return producer;
+        }
+    }
+
+    /**
+     * Create the Kafka producer ahead of the session and optionally fetch the topic metadata.
+     * The metadata is only fetched once per producer, and not while another fetch is running.
+     *
+     * @param fetchMetadata whether to contact the brokers, disabled for offline training runs
+     */
+    public void warmUpKafka(boolean fetchMetadata) {
+        ProjectKafkaProducer producer = warmUp();
+        if (!fetchMetadata || kafkaWarmedUp || !kafkaWarmUpRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int partitions = producer.warmUp(config.getKafkaTopic());
+            kafkaWarmedUp = true;
+            logger.info("Kafka metadata fetched for topic: {}, partitions: {}", config.getKafkaTopic(), partitions);
+        } catch (Exception e) {
+            logger.warn("Kafka metadata warm-up failed, it will be fetched on first send", e);
+        } finally {
+            kafkaWarmUpRunning.set(false);
+        }
+    }
+
+    /**
+     * Called with the duration of every Telegram bot registration, which runs on the session thread
+     */
+    public void setRegistrationListener(Consumer<Duration> registrationListener) {
+        this.registrationListener = registrationListener;
+    }
+
+    /**
+     * Swap the Kafka producer when one of its settings is changed through the control server
+     */
+    private void onTunablesChanged(Set<String> changed) {
+        if (Collections.disjoint(changed, RuntimeTunables.KAFKA_PRODUCER_TUNABLES)) {
+            return;
+        }
+        synchronized (producerLock) {
+            if (producer != null) {
+                producer.reconfigure();
+            }
+        }
+    }
+
+    private void startSession() {
+        if (isStarted) {
+            logger.warn("Start called but bot session is already started.");
+            return;
+        }
+        isStarted = true; // Set state early
+        botThread = Thread.ofVirtual().start(() -> {
+            try {
+                ProjectKafkaProducer producer = warmUp();
                 TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
-                bot = new TelegramBotListener(
-                        config.getTelegramBotToken(),
-                        config.getTelegramBotUsername(),
-                        config.getKafkaTopic(),
-                        producer
-                );
+                bot = createBot(producer);
                 // Store the session instance
+                long registrationStart = System.nanoTime();
                 session = botsApi.registerBot(bot);
-                logger.info("Telegram bot registered successfully: {}", config.getTelegramBotUsername());
+                Duration registration = Duration.ofNanos(System.nanoTime() - registrationStart);
+                logger.info("Telegram bot registered successfully: {} in {} ms",
+                        config.getTelegramBotUsername(), registration.toMillis());
+                registrationListener.accept(registration);
                 // Block this thread to keep the bot session alive until stopped or interrupted
                 Thread.currentThread().join();
             } catch (TelegramApiException e) {
@@ -70,20 +215,96 @@ public class TelegramBotSessionManager implements AutoCloseable {
                 // Ensure state is false if thread exits unexpectedly
                 isStarted = false;
                 session = null; // Clear session reference
-                // Note: bot.close() is called from the main close() method
+                // Note: the Kafka producer is closed from the main close() method
             }
         });
         // Add a shutdown hook in the main application logic, not here
         // Runtime.getRuntime().addShutdownHook(new Thread(this::close));
     }
 
-    public Boolean getIsStarted() {
-        // Check both the flag and if the session object is active
-        return isStarted && session != null && session.isRunning();
+    private TelegramBotListener createBot(ProjectKafkaProducer producer) {
+        return new TelegramBotListener(
+                config.getTelegramBotToken(),
+                config.getTelegramBotUsername(),
+                config.getKafkaTopic(),
+                producer,
+                partitioningConfig
+        );
+    }
+
+    /**
+     * Load the classes of a bot session for an AppCDS training run: build the bot and turn
+     * a sample message into a Kafka record, without contacting Telegram or Kafka
+     */
+    public void loadSessionClasses() {
+        try {
+            new TelegramBotsApi(DefaultBotSession.class);
+            new DefaultBotSession();
+            TelegramBotListener trainingBot = createBot(warmUp());
+
+            User user = new User(1L, "training", false);
+            Chat chat = new Chat(-1L, "supergroup");
+            chat.setTitle("training");
+            Message message = new Message();
+            message.setMessageId(1);
+            message.setFrom(user);
+            message.setChat(chat);
+            message.setText("Loading the classes of the message filters for the training run");
+            trainingBot.toKafkaRecord(message);
+        } catch (Exception e) {
+            logger.warn("Failed to load the bot session classes", e);
+        }
+    }
+
+    /**
+     * A session that is still registering counts as alive
+     */
+    private boolean isSessionAlive() {
+        BotSession currentSession = this.session;
+        return isStarted && (currentSession == null || currentSession.isRunning());
+    }
+
+    /**
+     * True while the session is running or, with leader election, while this replica
+     * takes part in the election, also as a standby
+     */
+    public boolean isActive() {
+        LeaderElector elector = this.leaderElector;
+        return (elector != null && elector.isRunning()) || isSessionAlive();
+    }
+
+    public boolean isLeaderElectionEnabled() {
+        return leaderElectionConfig.isEnabled();
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
+        // Stopping the election also stops the session and hands the lease to a standby
+        if (leaderElector != null && leaderElector.isRunning()) {
+            leaderElector.close();
+        } else {
+            stopSession();
+        }
+
+        // Close the Kafka producer once nothing can send to it anymore
+        synchronized (producerLock) {
+            if (producer != null) {
+                try {
+                    producer.close();
+                    logger.info("Kafka producer closed");
+                } catch (Exception e) {
+                    logger.error("Error closing Kafka producer", e);
+                }
+                producer = null;
+                kafkaWarmedUp = false;
+            }
+        }
+    }
+
+    /**
+     * Stop polling Telegram but keep the Kafka producer warm for a later takeover
+     */
+    private void stopSession() {
         if (!isStarted) {
             logger.warn("Close called but bot session is not started or already closing.");
             return;
@@ -101,20 +322,7 @@ public class TelegramBotSessionManager implements AutoCloseable {
             logger.warn("Telegram bot session was null or not running when close was called.");
         }
 
-        // 2. Close the bot listener (which closes the Kafka producer)
-        if (bot != null) {
-            try {
-                bot.close(); // Closes Kafka producer
-                logger.info("Bot listener resources closed.");
-            } catch (Exception e) {
-                logger.error("Error closing bot listener resources", e);
-            }
-        } else {
-            logger.warn("Bot listener instance was null when close was called.");
-        }
-
-
-        // 3. Interrupt the virtual thread (if it hasn't exited already from session.stop())
+        // 2. Interrupt the virtual thread (if it hasn't exited already from session.stop())
         if (botThread != null && botThread.isAlive()) {
             logger.info("Interrupting bot thread...");
             botThread.interrupt();
@@ -132,8 +340,9 @@ public class TelegramBotSessionManager implements AutoCloseable {
             }
         }
 
-        // 4. Update the state
+        // 3. Update the state
         isStarted = false;
+        bot = null;
         logger.info("Bot session close process completed.");
     }
 }
\ No newline at end of file
@@ -35,7 +35,7 @@ public class Config {
         return new Config(telegramBotToken, telegramBotUsername, kafkaBootstrapServers, kafkaTopic, saslUsername, saslPassword);
     }
 
-    private static String getRequiredEnv(String name) {
+    static String getRequiredEnv(String name) {
         String value = System.getenv(name);
         if (value == null || value.trim().isEmpty()) {
             logger.error("Required environment variable '{}' is not set", name);
@@ -44,7 +44,7 @@ public class Config {
         return value;
     }
 
-    private static String getEnv(String name, String defaultValue) {
+    static String getEnv(String name, String defaultValue) {
         String value = System.getenv(name);
         if (value == null || value.trim().isEmpty()) {
             logger.info("Environment variable '{}' not set, using default: {}", name, defaultValue);
@@ -53,6 +53,30 @@ public class Config {
         return value;
     }
 
+    static int getIntEnv(String name, int defaultValue) {
+        String value = getEnv(name, String.valueOf(defaultValue));
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.error("Environment variable '{}' is not a valid integer: {}", name, value);
+            throw new IllegalStateException("Environment variable '" + name + "' is not a valid integer: " + value);
+        }
+    }
+
+    static double getDoubleEnv(String name, double defaultValue) {
+        String value = getEnv(name, String.valueOf(defaultValue));
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            logger.error("Environment variable '{}' is not a valid number: {}", name, value);
+            throw new IllegalStateException("Environment variable '" + name + "' is not a valid number: " + value);
+        }
+    }
+
+    static boolean getBooleanEnv(String name, boolean defaultValue) {
+        return Boolean.parseBoolean(getEnv(name, String.valueOf(defaultValue)).trim());
+    }
+
     // Getters
     public String getTelegramBotToken() {
         return telegramBotToken;
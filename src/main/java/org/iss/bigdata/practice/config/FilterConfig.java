@@ -0,0 +1,61 @@
+package org.iss.bigdata.practice.config;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Settings for the filter and normalizer chain applied before messages are sent to Kafka
+ */
+public class FilterConfig {
+    private final List<String> filters;
+    private final int minLength;
+    private final int minWords;
+    private final int nearDuplicateWindow;
+    private final double nearDuplicateThreshold;
+
+    public FilterConfig(List<String> filters, int minLength, int minWords,
+                        int nearDuplicateWindow, double nearDuplicateThreshold) {
+        this.filters = filters;
+        this.minLength = minLength;
+        this.minWords = minWords;
+        this.nearDuplicateWindow = nearDuplicateWindow;
+        this.nearDuplicateThreshold = nearDuplicateThreshold;
+    }
+
+    // Load configuration from environment variables with defaults
+    public static FilterConfig loadFromEnvironment() {
+        // Filters run in the listed order, "none" disables filtering and an empty value keeps the defaults
+        String filterNames = Config.getEnv("MESSAGE_FILTERS",
+                "strip-urls-emoji,min-length,near-duplicate,script-tagger");
+        List<String> filters = Arrays.stream(filterNames.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty() && !name.equalsIgnoreCase("none"))
+                .toList();
+        int minLength = Config.getIntEnv("MESSAGE_MIN_LENGTH", 3);
+        int minWords = Config.getIntEnv("MESSAGE_MIN_WORDS", 2);
+        int nearDuplicateWindow = Config.getIntEnv("NEAR_DUPLICATE_WINDOW", 20);
+        double nearDuplicateThreshold = Config.getDoubleEnv("NEAR_DUPLICATE_THRESHOLD", 0.8);
+        return new FilterConfig(filters, minLength, minWords, nearDuplicateWindow, nearDuplicateThreshold);
+    }
+
+    // Getters
+    public List<String> getFilters() {
+        return filters;
+    }
+
+    public int getMinLength() {
+        return minLength;
+    }
+
+    public int getMinWords() {
+        return minWords;
+    }
+
+    public int getNearDuplicateWindow() {
+        return nearDuplicateWindow;
+    }
+
+    public double getNearDuplicateThreshold() {
+        return nearDuplicateThreshold;
+    }
+}
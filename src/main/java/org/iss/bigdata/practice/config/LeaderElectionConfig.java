@@ -0,0 +1,79 @@
+package org.iss.bigdata.practice.config;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Settings for active/standby leader election between listener replicas
+ */
+public class LeaderElectionConfig {
+    public static final String BACKEND_FILE = "file";
+    public static final String BACKEND_KUBERNETES = "kubernetes";
+
+    private final boolean enabled;
+    private final String backend;
+    private final String leaseName;
+    private final String leaseFilePath;
+    private final String holderIdentity;
+    private final Duration leaseDuration;
+    private final Duration renewInterval;
+
+    public LeaderElectionConfig(boolean enabled, String backend, String leaseName, String leaseFilePath,
+                                String holderIdentity, Duration leaseDuration, Duration renewInterval) {
+        if (!renewInterval.minus(leaseDuration).isNegative()) {
+            throw new IllegalStateException("Lease renew interval must be shorter than the lease duration");
+        }
+        this.enabled = enabled;
+        this.backend = backend;
+        this.leaseName = leaseName;
+        this.leaseFilePath = leaseFilePath;
+        this.holderIdentity = holderIdentity;
+        this.leaseDuration = leaseDuration;
+        this.renewInterval = renewInterval;
+    }
+
+    // Load configuration from environment variables with defaults
+    public static LeaderElectionConfig loadFromEnvironment() {
+        boolean enabled = Config.getBooleanEnv("LEADER_ELECTION_ENABLED", false);
+        String backend = Config.getEnv("LEASE_BACKEND", BACKEND_FILE);
+        String leaseName = Config.getEnv("LEASE_NAME", "telegram-bot-listener");
+        String leaseFilePath = Config.getEnv("LEASE_FILE_PATH",
+                System.getProperty("java.io.tmpdir") + "/telegram-bot-listener.lease");
+        // the pod name is unique per replica in k8s, the hostname is the pod name by default
+        String holderIdentity = Config.getEnv("POD_NAME",
+                Config.getEnv("HOSTNAME", UUID.randomUUID().toString()));
+        Duration leaseDuration = Duration.ofSeconds(Config.getIntEnv("LEASE_DURATION_SECONDS", 10));
+        Duration renewInterval = Duration.ofSeconds(Config.getIntEnv("LEASE_RENEW_INTERVAL_SECONDS", 2));
+        return new LeaderElectionConfig(enabled, backend, leaseName, leaseFilePath, holderIdentity,
+                leaseDuration, renewInterval);
+    }
+
+    // Getters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public String getLeaseName() {
+        return leaseName;
+    }
+
+    public String getLeaseFilePath() {
+        return leaseFilePath;
+    }
+
+    public String getHolderIdentity() {
+        return holderIdentity;
+    }
+
+    public Duration getLeaseDuration() {
+        return leaseDuration;
+    }
+
+    public Duration getRenewInterval() {
+        return renewInterval;
+    }
+}
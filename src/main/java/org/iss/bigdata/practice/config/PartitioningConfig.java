@@ -0,0 +1,77 @@
+package org.iss.bigdata.practice.config;
+
+import org.iss.bigdata.practice.partition.KeyStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings for how Kafka records are keyed and spread over the topic partitions
+ */
+public class PartitioningConfig {
+    private static final Logger logger = LoggerFactory.getLogger(PartitioningConfig.class);
+    private final KeyStrategy keyStrategy;
+    private final int maxTrackedChats;
+    private final Map<String, Integer> pinnedPartitions;
+
+    public PartitioningConfig(KeyStrategy keyStrategy, int maxTrackedChats, Map<String, Integer> pinnedPartitions) {
+        this.keyStrategy = keyStrategy;
+        this.maxTrackedChats = maxTrackedChats;
+        this.pinnedPartitions = pinnedPartitions;
+    }
+
+    // Load configuration from environment variables with defaults
+    public static PartitioningConfig loadFromEnvironment() {
+        KeyStrategy keyStrategy = KeyStrategy.fromName(Config.getEnv("KAFKA_KEY_STRATEGY", "user"));
+        int maxTrackedChats = Config.getIntEnv("CHAT_SEQUENCE_MAX_CHATS", 100_000);
+        Map<String, Integer> pinnedPartitions =
+                parsePinnedPartitions("CHAT_PARTITION_PINS", Config.getEnv("CHAT_PARTITION_PINS", ""));
+        return new PartitioningConfig(keyStrategy, maxTrackedChats, pinnedPartitions);
+    }
+
+    /**
+     * Parse "key=partition" pairs separated by commas, e.g. "-1001234567890=0,-1009876543210=1"
+     */
+    private static Map<String, Integer> parsePinnedPartitions(String name, String value) {
+        Map<String, Integer> pinnedPartitions = new LinkedHashMap<>();
+        for (String pin : value.split(",")) {
+            if (pin.isBlank()) {
+                continue;
+            }
+            int separator = pin.lastIndexOf('=');
+            try {
+                int partition = Integer.parseInt(pin.substring(separator + 1).trim());
+                if (separator <= 0 || partition < 0) {
+                    throw new NumberFormatException(pin);
+                }
+                pinnedPartitions.put(pin.substring(0, separator).trim(), partition);
+            } catch (NumberFormatException e) {
+                logger.error("Environment variable '{}' has an invalid pin: {}", name, pin);
+                throw new IllegalStateException("Environment variable '" + name
+                        + "' must be key=partition pairs, invalid pin: " + pin);
+            }
+        }
+        return pinnedPartitions;
+    }
+
+    // Getters
+    public KeyStrategy getKeyStrategy() {
+        return keyStrategy;
+    }
+
+    /**
+     * How many chats the sequencer keeps the last chat_seq of
+     */
+    public int getMaxTrackedChats() {
+        return maxTrackedChats;
+    }
+
+    /**
+     * Partition by record key for hot chats that should get a partition of their own
+     */
+    public Map<String, Integer> getPinnedPartitions() {
+        return pinnedPartitions;
+    }
+}
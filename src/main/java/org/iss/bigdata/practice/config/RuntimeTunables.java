@@ -0,0 +1,263 @@
+package org.iss.bigdata.practice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Performance settings that can be changed at runtime through the HTTP control server.
+ * Initial values come from environment variables, later updates are validated as a whole
+ * and listeners are told which settings changed. If a listener fails to apply an update,
+ * the previous values are restored.
+ */
+public class RuntimeTunables {
+    private static final Logger logger = LoggerFactory.getLogger(RuntimeTunables.class);
+    public static final String KAFKA_LINGER_MS = "kafka.linger.ms";
+    public static final String KAFKA_BATCH_SIZE = "kafka.batch.size";
+    public static final String KAFKA_COMPRESSION_TYPE = "kafka.compression.type";
+    public static final String ELASTICSEARCH_URL = "elasticsearch.url";
+    public static final String ELASTICSEARCH_REQUEST_TIMEOUT_MS = "elasticsearch.request.timeout.ms";
+    public static final String MESSAGE_LOG_SAMPLE_RATIO = "log.message.sample.ratio";
+    // Changing any of these requires a new Kafka producer
+    public static final Set<String> KAFKA_PRODUCER_TUNABLES =
+            Set.of(KAFKA_LINGER_MS, KAFKA_BATCH_SIZE, KAFKA_COMPRESSION_TYPE);
+    private static final Set<String> COMPRESSION_TYPES = Set.of("none", "gzip", "snappy", "lz4", "zstd");
+    // Default to connecting to our ELK stack in Kubernetes
+    private static final Values DEFAULTS = new Values(1, 16384, "none",
+            "http://elasticsearch.elk-ns.svc.cluster.local:9200", 10000, 1.0);
+    // Environment variable of each tunable
+    private static final Map<String, String> ENV_VARS = Map.of(
+            KAFKA_LINGER_MS, "KAFKA_LINGER_MS",
+            KAFKA_BATCH_SIZE, "KAFKA_BATCH_SIZE",
+            KAFKA_COMPRESSION_TYPE, "KAFKA_COMPRESSION_TYPE",
+            ELASTICSEARCH_URL, "ELASTICSEARCH_URL",
+            ELASTICSEARCH_REQUEST_TIMEOUT_MS, "ELASTICSEARCH_REQUEST_TIMEOUT_MS",
+            MESSAGE_LOG_SAMPLE_RATIO, "MESSAGE_LOG_SAMPLE_RATIO"
+    );
+
+    private record Values(int kafkaLingerMs, int kafkaBatchSize, String kafkaCompressionType,
+                          String elasticsearchUrl, int elasticsearchRequestTimeoutMs,
+                          double messageLogSampleRatio) {
+    }
+
+    private volatile Values values;
+    // Serializes updates including their listeners, so a rollback never undoes a later update
+    private final Object updateLock = new Object();
+    private final List<Consumer<Set<String>>> listeners = new CopyOnWriteArrayList<>();
+
+    private RuntimeTunables() {
+        this.values = loadFromEnvironment();
+    }
+
+    public static RuntimeTunables getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final RuntimeTunables INSTANCE = new RuntimeTunables();
+    }
+
+    private static Values loadFromEnvironment() {
+        Map<String, Object> defaults = toMap(DEFAULTS);
+        Values loaded = DEFAULTS;
+        for (Map.Entry<String, Object> tunable : defaults.entrySet()) {
+            String envVar = ENV_VARS.get(tunable.getKey());
+            String value = Config.getEnv(envVar, String.valueOf(tunable.getValue()));
+            try {
+                loaded = parse(loaded, Map.of(tunable.getKey(), value));
+            } catch (IllegalArgumentException e) {
+                logger.error("Invalid value for environment variable '{}': {}", envVar, value);
+                throw new IllegalStateException("Environment variable '" + envVar + "' is not valid: "
+                        + e.getMessage(), e);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Register a listener called with the names of the settings changed by each update.
+     * A listener rejects an update by throwing, which restores the previous values.
+     */
+    public void addListener(Consumer<Set<String>> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<Set<String>> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Current value of every setting, by name
+     */
+    public Map<String, Object> snapshot() {
+        return toMap(values);
+    }
+
+    private static Map<String, Object> toMap(Values values) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(KAFKA_LINGER_MS, values.kafkaLingerMs());
+        map.put(KAFKA_BATCH_SIZE, values.kafkaBatchSize());
+        map.put(KAFKA_COMPRESSION_TYPE, values.kafkaCompressionType());
+        map.put(ELASTICSEARCH_URL, values.elasticsearchUrl());
+        map.put(ELASTICSEARCH_REQUEST_TIMEOUT_MS, values.elasticsearchRequestTimeoutMs());
+        map.put(MESSAGE_LOG_SAMPLE_RATIO, values.messageLogSampleRatio());
+        return map;
+    }
+
+    /**
+     * Update settings by name. Nothing is applied if any of the values is invalid
+     * or if a listener fails to apply the new values.
+     *
+     * @param changes The new values by setting name
+     * @return the names of the settings whose value actually changed
+     * @throws IllegalArgumentException if a name is unknown or a value is invalid
+     * @throws IllegalStateException    if a listener failed, the previous values are restored
+     */
+    public Set<String> update(Map<String, String> changes) {
+        synchronized (updateLock) {
+            Values previous = values;
+            Values next = parse(previous, changes);
+            Set<String> changed = new LinkedHashSet<>();
+            Map<String, Object> previousMap = toMap(previous);
+            toMap(next).forEach((name, value) -> {
+                if (!Objects.equals(value, previousMap.get(name))) {
+                    changed.add(name);
+                }
+            });
+            if (changed.isEmpty()) {
+                return changed;
+            }
+
+            values = next;
+            logger.info("Runtime tunables changed: {}", changed);
+            List<Consumer<Set<String>>> applied = new ArrayList<>();
+            for (Consumer<Set<String>> listener : listeners) {
+                try {
+                    listener.accept(changed);
+                    applied.add(listener);
+                } catch (RuntimeException e) {
+                    logger.error("Error applying runtime tunables change, restoring previous values", e);
+                    rollback(previous, changed, applied);
+                    throw new IllegalStateException("Failed to apply " + changed + ": " + e.getMessage(), e);
+                }
+            }
+            return changed;
+        }
+    }
+
+    /**
+     * Restore the previous values and let the listeners that already applied them switch back
+     */
+    private void rollback(Values previous, Set<String> changed, List<Consumer<Set<String>>> applied) {
+        values = previous;
+        for (Consumer<Set<String>> listener : applied) {
+            try {
+                listener.accept(changed);
+            } catch (RuntimeException e) {
+                logger.error("Error restoring previous runtime tunables", e);
+            }
+        }
+    }
+
+    /**
+     * Validate the changes against the current values, without applying anything
+     */
+    private static Values parse(Values current, Map<String, String> changes) {
+        int lingerMs = current.kafkaLingerMs();
+        int batchSize = current.kafkaBatchSize();
+        String compressionType = current.kafkaCompressionType();
+        String esUrl = current.elasticsearchUrl();
+        int esTimeoutMs = current.elasticsearchRequestTimeoutMs();
+        double sampleRatio = current.messageLogSampleRatio();
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            String name = change.getKey();
+            String value = change.getValue() == null ? "" : change.getValue().trim();
+            switch (name) {
+                case KAFKA_LINGER_MS -> lingerMs = parseInt(name, value, 0, 60_000);
+                case KAFKA_BATCH_SIZE -> batchSize = parseInt(name, value, 0, 16 * 1024 * 1024);
+                case KAFKA_COMPRESSION_TYPE -> {
+                    if (!COMPRESSION_TYPES.contains(value)) {
+                        throw new IllegalArgumentException(name + " must be one of " + COMPRESSION_TYPES);
+                    }
+                    compressionType = value;
+                }
+                case ELASTICSEARCH_URL -> esUrl = parseUrl(name, value);
+                case ELASTICSEARCH_REQUEST_TIMEOUT_MS -> esTimeoutMs = parseInt(name, value, 1, 300_000);
+                case MESSAGE_LOG_SAMPLE_RATIO -> sampleRatio = parseDouble(name, value, 0.0, 1.0);
+                default -> throw new IllegalArgumentException("Unknown tunable: " + name);
+            }
+        }
+        return new Values(lingerMs, batchSize, compressionType, esUrl, esTimeoutMs, sampleRatio);
+    }
+
+    private static String parseUrl(String name, String value) {
+        try {
+            URI uri = URI.create(value);
+            if (("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) && uri.getHost() != null) {
+                return value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+            }
+        } catch (IllegalArgumentException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(name + " must be an http or https URL with a host");
+    }
+
+    private static int parseInt(String name, String value, int min, int max) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(name + " must be an integer between " + min + " and " + max);
+    }
+
+    private static double parseDouble(String name, String value, double min, double max) {
+        try {
+            double parsed = Double.parseDouble(value);
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(name + " must be a number between " + min + " and " + max);
+    }
+
+    // Getters
+    public int getKafkaLingerMs() {
+        return values.kafkaLingerMs();
+    }
+
+    public int getKafkaBatchSize() {
+        return values.kafkaBatchSize();
+    }
+
+    public String getKafkaCompressionType() {
+        return values.kafkaCompressionType();
+    }
+
+    public String getElasticsearchUrl() {
+        return values.elasticsearchUrl();
+    }
+
+    public int getElasticsearchRequestTimeoutMs() {
+        return values.elasticsearchRequestTimeoutMs();
+    }
+
+    public double getMessageLogSampleRatio() {
+        return values.messageLogSampleRatio();
+    }
+}
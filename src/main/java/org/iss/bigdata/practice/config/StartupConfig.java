@@ -0,0 +1,43 @@
+package org.iss.bigdata.practice.config;
+
+import java.time.Duration;
+
+/**
+ * Settings for how the application starts up
+ */
+public class StartupConfig {
+    private final boolean fastStartup;
+    private final boolean cdsTrainingRun;
+    private final Duration warmUpTimeout;
+
+    public StartupConfig(boolean fastStartup, boolean cdsTrainingRun, Duration warmUpTimeout) {
+        this.fastStartup = fastStartup;
+        this.cdsTrainingRun = cdsTrainingRun;
+        this.warmUpTimeout = warmUpTimeout;
+    }
+
+    // Load configuration from environment variables with defaults
+    public static StartupConfig loadFromEnvironment() {
+        boolean fastStartup = Config.getBooleanEnv("FAST_STARTUP", false);
+        boolean cdsTrainingRun = Config.getBooleanEnv("CDS_TRAINING_RUN", false);
+        Duration warmUpTimeout = Duration.ofSeconds(Config.getIntEnv("STARTUP_WARMUP_TIMEOUT_SECONDS", 10));
+        return new StartupConfig(fastStartup, cdsTrainingRun, warmUpTimeout);
+    }
+
+    // Getters
+    public boolean isFastStartup() {
+        return fastStartup;
+    }
+
+    /**
+     * Training runs load the application classes without contacting Telegram, Kafka or
+     * Elasticsearch and then exit, so the JVM can dump an AppCDS archive
+     */
+    public boolean isCdsTrainingRun() {
+        return cdsTrainingRun;
+    }
+
+    public Duration getWarmUpTimeout() {
+        return warmUpTimeout;
+    }
+}
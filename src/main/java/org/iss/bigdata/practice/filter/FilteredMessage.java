@@ -0,0 +1,43 @@
+package org.iss.bigdata.practice.filter;
+
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A Telegram message on its way through the filter chain
+ */
+public class FilteredMessage {
+    private final Message message;
+    private final Map<String, String> attributes = new LinkedHashMap<>();
+    private String text;
+
+    public FilteredMessage(Message message) {
+        this.message = message;
+        this.text = message.getText();
+    }
+
+    public Message getMessage() {
+        return message;
+    }
+
+    public Long getChatId() {
+        return message.getChatId();
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Extra fields added by the filters, sent to Kafka in the "attributes" object of the record
+     */
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+}
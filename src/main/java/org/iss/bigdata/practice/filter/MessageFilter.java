@@ -0,0 +1,19 @@
+package org.iss.bigdata.practice.filter;
+
+/**
+ * One step of the chain applied to group messages before they are sent to Kafka.
+ * A filter can drop the message, rewrite its text or add attributes to it.
+ */
+public interface MessageFilter {
+
+    /**
+     * Name used to enable the filter in MESSAGE_FILTERS and to report its drop count
+     */
+    String getName();
+
+    /**
+     * @param message The message, with the text as left by the previous filters
+     * @return false to drop the message
+     */
+    boolean accept(FilteredMessage message);
+}
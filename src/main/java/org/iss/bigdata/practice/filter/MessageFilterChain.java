@@ -0,0 +1,97 @@
+package org.iss.bigdata.practice.filter;
+
+import org.iss.bigdata.practice.config.FilterConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the configured filters in order on every group message before it is sent to Kafka
+ * and counts how many messages each filter dropped
+ */
+public class MessageFilterChain {
+    private static final Logger logger = LoggerFactory.getLogger(MessageFilterChain.class);
+    private final List<MessageFilter> filters;
+    private final Map<String, LongAdder> dropCounts = new LinkedHashMap<>();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder forwarded = new LongAdder();
+
+    public MessageFilterChain(List<MessageFilter> filters) {
+        this.filters = List.copyOf(filters);
+        for (MessageFilter filter : this.filters) {
+            dropCounts.put(filter.getName(), new LongAdder());
+        }
+        logger.info("MessageFilterChain initialized with filters: {}", dropCounts.keySet());
+    }
+
+    public static MessageFilterChain getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final MessageFilterChain INSTANCE = fromConfig(FilterConfig.loadFromEnvironment());
+    }
+
+    public static MessageFilterChain fromConfig(FilterConfig config) {
+        return new MessageFilterChain(config.getFilters().stream()
+                .map(name -> createFilter(name, config))
+                .toList());
+    }
+
+    private static MessageFilter createFilter(String name, FilterConfig config) {
+        return switch (name) {
+            case UrlEmojiStripper.NAME -> new UrlEmojiStripper();
+            case MinLengthFilter.NAME -> new MinLengthFilter(config.getMinLength(), config.getMinWords());
+            case NearDuplicateFilter.NAME ->
+                    new NearDuplicateFilter(config.getNearDuplicateWindow(), config.getNearDuplicateThreshold());
+            case ScriptTagger.NAME -> new ScriptTagger();
+            default -> throw new IllegalStateException("Unknown message filter: " + name);
+        };
+    }
+
+    /**
+     * Run the filters on a message
+     *
+     * @param message The group message to forward
+     * @return the filtered message, or null if one of the filters dropped it
+     */
+    public FilteredMessage process(Message message) {
+        processed.increment();
+        FilteredMessage filtered = new FilteredMessage(message);
+        for (MessageFilter filter : filters) {
+            boolean accepted;
+            try {
+                accepted = filter.accept(filtered);
+            } catch (Exception e) {
+                // a broken filter should not stop messages from reaching Kafka
+                logger.error("Error in message filter: {}", filter.getName(), e);
+                continue;
+            }
+            if (!accepted) {
+                dropCounts.get(filter.getName()).increment();
+                logger.debug("Message in chat {} dropped by filter: {}", message.getChatId(), filter.getName());
+                return null;
+            }
+        }
+        forwarded.increment();
+        return filtered;
+    }
+
+    /**
+     * Message counts since startup, with the number of messages dropped by each filter
+     */
+    public Map<String, Object> stats() {
+        Map<String, Long> dropped = new LinkedHashMap<>();
+        dropCounts.forEach((name, count) -> dropped.put(name, count.sum()));
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("processed", processed.sum());
+        stats.put("forwarded", forwarded.sum());
+        stats.put("dropped", dropped);
+        return stats;
+    }
+}
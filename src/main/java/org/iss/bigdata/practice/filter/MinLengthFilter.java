@@ -0,0 +1,58 @@
+package org.iss.bigdata.practice.filter;
+
+import java.lang.Character.UnicodeScript;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Drops messages that are too short to be useful, such as one-word replies.
+ * Words can only be counted in scripts that separate them with spaces, messages in
+ * the other scripts are only checked against the minimum length.
+ */
+public class MinLengthFilter implements MessageFilter {
+    public static final String NAME = "min-length";
+    private static final Set<UnicodeScript> UNSPACED_SCRIPTS = EnumSet.of(
+            UnicodeScript.HAN, UnicodeScript.HIRAGANA, UnicodeScript.KATAKANA, UnicodeScript.THAI,
+            UnicodeScript.LAO, UnicodeScript.KHMER, UnicodeScript.MYANMAR, UnicodeScript.TIBETAN);
+    private final int minLength;
+    private final int minWords;
+
+    public MinLengthFilter(int minLength, int minWords) {
+        this.minLength = minLength;
+        this.minWords = minWords;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean accept(FilteredMessage message) {
+        String text = message.getText().trim();
+        if (text.codePointCount(0, text.length()) < minLength) {
+            return false;
+        }
+        return isWrittenWithoutSpaces(text) || countWords(text) >= minWords;
+    }
+
+    private boolean isWrittenWithoutSpaces(String text) {
+        return text.codePoints().anyMatch(codePoint -> UNSPACED_SCRIPTS.contains(UnicodeScript.of(codePoint)));
+    }
+
+    private int countWords(String text) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length() && words < minWords; ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isWhitespace(codePoint)) {
+                inWord = false;
+            } else if (!inWord) {
+                inWord = true;
+                words++;
+            }
+        }
+        return words;
+    }
+}
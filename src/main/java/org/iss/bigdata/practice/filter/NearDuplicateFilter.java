@@ -0,0 +1,140 @@
+package org.iss.bigdata.practice.filter;
+
+import org.iss.bigdata.practice.util.Hashing;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Drops messages that are nearly identical to one of the recent messages of the same chat.
+ * Each message is reduced to a bottom-k sketch of the rolling hashes of its character
+ * shingles, and sketches are compared with an estimate of their Jaccard similarity.
+ */
+public class NearDuplicateFilter implements MessageFilter {
+    public static final String NAME = "near-duplicate";
+    private static final int SHINGLE_LENGTH = 5;
+    private static final int SKETCH_SIZE = 16;
+    private static final long HASH_BASE = 1_000_003L;
+    private static final int MAX_TRACKED_CHATS = 10_000;
+    private final int window;
+    private final double threshold;
+    // least recently active chats are evicted first
+    private final Map<Long, ArrayDeque<long[]>> recentByChat =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, ArrayDeque<long[]>> eldest) {
+                    return size() > MAX_TRACKED_CHATS;
+                }
+            };
+
+    public NearDuplicateFilter(int window, double threshold) {
+        this.window = window;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean accept(FilteredMessage message) {
+        long[] sketch = sketch(normalize(message.getText()));
+        synchronized (recentByChat) {
+            ArrayDeque<long[]> recent = recentByChat.computeIfAbsent(message.getChatId(), id -> new ArrayDeque<>());
+            for (long[] previous : recent) {
+                if (similarity(sketch, previous) >= threshold) {
+                    return false;
+                }
+            }
+            recent.addLast(sketch);
+            if (recent.size() > window) {
+                recent.removeFirst();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lower case letters and digits separated by single spaces, so formatting changes do not matter
+     */
+    private String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.appendCodePoint(Character.toLowerCase(codePoint));
+            } else {
+                pendingSpace = normalized.length() > 0;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * The smallest distinct hashes of all shingles, sorted ascending
+     */
+    private long[] sketch(String text) {
+        int shingles = Math.max(1, text.length() - SHINGLE_LENGTH + 1);
+        int length = Math.min(SHINGLE_LENGTH, text.length());
+        long[] hashes = new long[shingles];
+
+        long highestPower = 1;
+        for (int i = 1; i < length; i++) {
+            highestPower *= HASH_BASE;
+        }
+        long hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = hash * HASH_BASE + text.charAt(i);
+        }
+        // mixed, so similar polynomial hashes spread over the whole long range
+        hashes[0] = Hashing.mix(hash);
+        // roll the window one character at a time instead of hashing every shingle again
+        for (int i = 1; i < shingles; i++) {
+            hash = (hash - text.charAt(i - 1) * highestPower) * HASH_BASE + text.charAt(i + length - 1);
+            hashes[i] = Hashing.mix(hash);
+        }
+
+        Arrays.sort(hashes);
+        long[] sketch = new long[Math.min(SKETCH_SIZE, hashes.length)];
+        int size = 0;
+        for (int i = 0; i < hashes.length && size < sketch.length; i++) {
+            if (size == 0 || hashes[i] != sketch[size - 1]) {
+                sketch[size++] = hashes[i];
+            }
+        }
+        return size == sketch.length ? sketch : Arrays.copyOf(sketch, size);
+    }
+
+    /**
+     * Estimate the Jaccard similarity from the smallest hashes of the union of both sketches
+     */
+    private double similarity(long[] first, long[] second) {
+        int limit = Math.max(first.length, second.length);
+        int i = 0;
+        int j = 0;
+        int seen = 0;
+        int shared = 0;
+        while (seen < limit && (i < first.length || j < second.length)) {
+            if (j >= second.length || (i < first.length && first[i] < second[j])) {
+                i++;
+            } else if (i >= first.length || second[j] < first[i]) {
+                j++;
+            } else {
+                shared++;
+                i++;
+                j++;
+            }
+            seen++;
+        }
+        return seen == 0 ? 1.0 : (double) shared / seen;
+    }
+}
@@ -0,0 +1,40 @@
+package org.iss.bigdata.practice.filter;
+
+import java.lang.Character.UnicodeScript;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tags each message with the writing script most of its letters are in, e.g. "latin",
+ * "han" or "cyrillic", so downstream jobs can route messages by language family
+ */
+public class ScriptTagger implements MessageFilter {
+    public static final String NAME = "script-tagger";
+    public static final String ATTRIBUTE = "script";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean accept(FilteredMessage message) {
+        String text = message.getText();
+        Map<UnicodeScript, Integer> letters = new EnumMap<>(UnicodeScript.class);
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetter(codePoint)) {
+                letters.merge(UnicodeScript.of(codePoint), 1, Integer::sum);
+            }
+        }
+        String script = letters.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(entry -> entry.getKey().name().toLowerCase(Locale.ROOT))
+                .orElse("unknown");
+        message.getAttributes().put(ATTRIBUTE, script);
+        // tagging never drops a message
+        return true;
+    }
+}
@@ -0,0 +1,56 @@
+package org.iss.bigdata.practice.filter;
+
+import java.util.regex.Pattern;
+
+/**
+ * Removes links and emoji from the text and drops messages that had nothing else in them
+ */
+public class UrlEmojiStripper implements MessageFilter {
+    public static final String NAME = "strip-urls-emoji";
+    private static final Pattern URL_PATTERN = Pattern.compile("(?i)\\b(?:https?://|www\\.|t\\.me/)\\S+");
+    private static final int ZERO_WIDTH_JOINER = 0x200D;
+    private static final int VARIATION_SELECTOR_TEXT = 0xFE0E;
+    private static final int VARIATION_SELECTOR_EMOJI = 0xFE0F;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean accept(FilteredMessage message) {
+        String text = URL_PATTERN.matcher(message.getText()).replaceAll(" ");
+        StringBuilder stripped = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isEmoji(codePoint)) {
+                continue;
+            }
+            // collapse the whitespace left behind by the removed parts
+            if (Character.isWhitespace(codePoint)) {
+                pendingSpace = stripped.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                stripped.append(' ');
+                pendingSpace = false;
+            }
+            stripped.appendCodePoint(codePoint);
+        }
+        message.setText(stripped.toString());
+        return stripped.length() > 0;
+    }
+
+    private boolean isEmoji(int codePoint) {
+        int type = Character.getType(codePoint);
+        // emoji are symbols from the arrows block upwards (this keeps signs like the degree sign),
+        // skin tones are modifier symbols and flags are regional indicator symbols
+        return (type == Character.OTHER_SYMBOL && codePoint >= 0x2190)
+                || (type == Character.MODIFIER_SYMBOL && codePoint > 0xFFFF)
+                || codePoint == ZERO_WIDTH_JOINER
+                || codePoint == VARIATION_SELECTOR_TEXT
+                || codePoint == VARIATION_SELECTOR_EMOJI;
+    }
+}
@@ -0,0 +1,91 @@
+package org.iss.bigdata.practice.lease;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Lease stored in a local file, for tests and for running several replicas on one host.
+ * The file holds "holderId expiresAtMillis" and is updated under an OS file lock.
+ * All replicas share the clock of the host, so the expiry can be stored as a timestamp,
+ * and the timeout is not needed since the lock is only held for a read and a write.
+ */
+public class FileLeaseBackend implements LeaseBackend {
+    private static final Logger logger = LoggerFactory.getLogger(FileLeaseBackend.class);
+    // FileLock is held per JVM, so electors within the same JVM also need to be serialized
+    private static final Object JVM_LOCK = new Object();
+    private final Path leaseFile;
+
+    public FileLeaseBackend(Path leaseFile) {
+        this.leaseFile = leaseFile;
+        logger.info("FileLeaseBackend initialized with lease file: {}", leaseFile);
+    }
+
+    @Override
+    public boolean tryAcquire(String holderId, Duration leaseDuration, Duration timeout) throws IOException {
+        synchronized (JVM_LOCK) {
+            try (FileChannel channel = openChannel(); FileLock ignored = channel.lock()) {
+                String[] current = read(channel);
+                long now = System.currentTimeMillis();
+                if (current != null && !current[0].equals(holderId) && Long.parseLong(current[1]) > now) {
+                    return false;
+                }
+                write(channel, holderId, now + leaseDuration.toMillis());
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void release(String holderId) throws IOException {
+        synchronized (JVM_LOCK) {
+            try (FileChannel channel = openChannel(); FileLock ignored = channel.lock()) {
+                String[] current = read(channel);
+                if (current != null && current[0].equals(holderId)) {
+                    channel.truncate(0);
+                    logger.info("Lease released by {}", holderId);
+                }
+            }
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        return FileChannel.open(leaseFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Read the current lease, returns null if the lease is free or unreadable
+     */
+    private String[] read(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.read(buffer, 0);
+        String content = new String(buffer.array(), StandardCharsets.UTF_8).trim();
+        String[] parts = content.split(" ");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed lease file content: {}", content);
+            return null;
+        }
+        return parts;
+    }
+
+    private void write(FileChannel channel, String holderId, long expiresAtMillis) throws IOException {
+        byte[] content = (holderId + " " + expiresAtMillis).getBytes(StandardCharsets.UTF_8);
+        channel.truncate(0);
+        channel.write(ByteBuffer.wrap(content), 0);
+        channel.force(false);
+    }
+}
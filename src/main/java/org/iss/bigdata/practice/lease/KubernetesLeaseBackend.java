@@ -0,0 +1,267 @@
+package org.iss.bigdata.practice.lease;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Lease stored as a coordination.k8s.io/v1 Lease object, using the pod's service account.
+ * Updates rely on the resourceVersion check of the API server, so two replicas can never
+ * both succeed in taking over the same lease.
+ * Like client-go, expiry is judged by how long this replica has seen the same lease record
+ * on its own monotonic clock, never by comparing renewTime with the local wall clock.
+ */
+public class KubernetesLeaseBackend implements LeaseBackend {
+    private static final Logger logger = LoggerFactory.getLogger(KubernetesLeaseBackend.class);
+    private static final String SERVICE_ACCOUNT_DIR = "/var/run/secrets/kubernetes.io/serviceaccount";
+    private static final String API_SERVER_URL = "https://kubernetes.default.svc";
+    private static final Duration RELEASE_TIMEOUT = Duration.ofSeconds(5);
+    // projected service account tokens are rotated by the kubelet, re-read like client-go does
+    private static final Duration TOKEN_REFRESH_INTERVAL = Duration.ofMinutes(1);
+    // Lease uses MicroTime, which requires exactly six fractional digits
+    private static final DateTimeFormatter MICRO_TIME = DateTimeFormatter
+            .ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS'Z'")
+            .withZone(ZoneOffset.UTC);
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String leaseUrl;
+    private final String leasesUrl;
+    private final String leaseName;
+    private String token;
+    private long tokenReadAtNanos;
+    // resourceVersion of the last lease record seen and when this replica first saw it
+    private String observedResourceVersion;
+    private long observedAtNanos;
+
+    public KubernetesLeaseBackend(String leaseName) throws IOException {
+        this.leaseName = leaseName;
+        readToken();
+        String namespace = Files.readString(Path.of(SERVICE_ACCOUNT_DIR, "namespace")).trim();
+        this.leasesUrl = API_SERVER_URL + "/apis/coordination.k8s.io/v1/namespaces/" + namespace + "/leases";
+        this.leaseUrl = leasesUrl + "/" + leaseName;
+        this.objectMapper = new ObjectMapper();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .sslContext(createSslContext(Path.of(SERVICE_ACCOUNT_DIR, "ca.crt")))
+                .build();
+        logger.info("KubernetesLeaseBackend initialized with lease: {}/{}", namespace, leaseName);
+    }
+
+    @Override
+    public synchronized boolean tryAcquire(String holderId, Duration leaseDuration, Duration timeout)
+            throws IOException {
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        HttpResponse<String> current = send(request(leaseUrl, deadlineNanos).GET().build(), deadlineNanos);
+        Instant now = Instant.now();
+
+        if (current.statusCode() == 404) {
+            ObjectNode lease = objectMapper.createObjectNode();
+            lease.put("apiVersion", "coordination.k8s.io/v1");
+            lease.put("kind", "Lease");
+            lease.putObject("metadata").put("name", leaseName);
+            fillSpec(lease.putObject("spec"), holderId, leaseDuration, now, now);
+            HttpResponse<String> created = send(request(leasesUrl, deadlineNanos)
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(lease)))
+                    .build(), deadlineNanos);
+            // 409 means another replica created it first
+            return observeWritten(created);
+        }
+        if (current.statusCode() < 200 || current.statusCode() >= 300) {
+            throw new IOException("Failed to read lease " + leaseName + ", status code: " + current.statusCode());
+        }
+
+        ObjectNode lease = (ObjectNode) objectMapper.readTree(current.body());
+        observe(lease);
+        ObjectNode spec = lease.has("spec") ? (ObjectNode) lease.get("spec") : lease.putObject("spec");
+        String currentHolder = spec.path("holderIdentity").asText("");
+        Instant acquireTime = now;
+        if (currentHolder.equals(holderId)) {
+            acquireTime = parseTime(spec.path("acquireTime"), now);
+        } else if (!currentHolder.isEmpty() && !isObservedExpired(spec)) {
+            return false;
+        }
+
+        fillSpec(spec, holderId, leaseDuration, acquireTime, now);
+        // resourceVersion stays in the metadata, so a concurrent update yields 409 Conflict
+        HttpResponse<String> updated = send(request(leaseUrl, deadlineNanos)
+                .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(lease)))
+                .build(), deadlineNanos);
+        return observeWritten(updated);
+    }
+
+    @Override
+    public synchronized void release(String holderId) throws IOException {
+        long deadlineNanos = System.nanoTime() + RELEASE_TIMEOUT.toNanos();
+        HttpResponse<String> current = send(request(leaseUrl, deadlineNanos).GET().build(), deadlineNanos);
+        if (!isSuccess(current, 404)) {
+            return;
+        }
+        ObjectNode lease = (ObjectNode) objectMapper.readTree(current.body());
+        ObjectNode spec = (ObjectNode) lease.get("spec");
+        if (spec == null || !holderId.equals(spec.path("holderIdentity").asText())) {
+            return;
+        }
+        // Same convention as client-go: empty holder and a one second lease
+        spec.put("holderIdentity", "");
+        spec.put("leaseDurationSeconds", 1);
+        HttpResponse<String> updated = send(request(leaseUrl, deadlineNanos)
+                .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(lease)))
+                .build(), deadlineNanos);
+        if (isSuccess(updated, 409)) {
+            logger.info("Lease {} released by {}", leaseName, holderId);
+        }
+    }
+
+    private void fillSpec(ObjectNode spec, String holderId, Duration leaseDuration,
+                          Instant acquireTime, Instant renewTime) {
+        spec.put("holderIdentity", holderId);
+        spec.put("leaseDurationSeconds", leaseDuration.toSeconds());
+        spec.put("acquireTime", MICRO_TIME.format(acquireTime));
+        spec.put("renewTime", MICRO_TIME.format(renewTime));
+    }
+
+    /**
+     * Remember the record and restart the expiry clock whenever its resourceVersion changes
+     */
+    private void observe(JsonNode lease) {
+        String resourceVersion = lease.path("metadata").path("resourceVersion").asText("");
+        if (!resourceVersion.equals(observedResourceVersion)) {
+            observedResourceVersion = resourceVersion;
+            observedAtNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Observe the lease returned by a create or update, returns false on 409 Conflict
+     */
+    private boolean observeWritten(HttpResponse<String> response) throws IOException {
+        if (!isSuccess(response, 409)) {
+            return false;
+        }
+        observe(objectMapper.readTree(response.body()));
+        return true;
+    }
+
+    /**
+     * The holder has not renewed for a whole lease duration since this replica saw the record change
+     */
+    private boolean isObservedExpired(JsonNode spec) {
+        long durationSeconds = spec.path("leaseDurationSeconds").asLong(0);
+        return System.nanoTime() - observedAtNanos > Duration.ofSeconds(durationSeconds).toNanos();
+    }
+
+    private Instant parseTime(JsonNode node, Instant defaultValue) {
+        if (!node.isTextual()) {
+            return defaultValue;
+        }
+        return Instant.parse(node.asText());
+    }
+
+    /**
+     * Returns true on 2xx, false on the expected failure status, throws on anything else
+     */
+    private boolean isSuccess(HttpResponse<String> response, int expectedFailureStatus) throws IOException {
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            return true;
+        }
+        if (status == expectedFailureStatus) {
+            return false;
+        }
+        throw new IOException("Lease request failed with status code: " + status + ", response: " + response.body());
+    }
+
+    /**
+     * Each request only gets the time left until the deadline of the whole call
+     */
+    private HttpRequest.Builder request(String url, long deadlineNanos) throws IOException {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+            throw new IOException("Deadline exceeded before calling the Kubernetes API for lease " + leaseName);
+        }
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(Duration.ofNanos(remainingNanos))
+                .header("Authorization", "Bearer " + token())
+                .header("Content-Type", "application/json");
+    }
+
+    /**
+     * Send the request, and on 401 Unauthorized send it once more with a freshly read token
+     */
+    private HttpResponse<String> send(HttpRequest request, long deadlineNanos) throws IOException {
+        HttpResponse<String> response = send(request);
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (response.statusCode() != 401 || remainingNanos <= 0) {
+            return response;
+        }
+        logger.warn("Kubernetes API rejected the service account token, reading it again");
+        readToken();
+        HttpRequest retry = HttpRequest.newBuilder(request, (name, value) -> !name.equalsIgnoreCase("Authorization"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofNanos(remainingNanos))
+                .build();
+        return send(retry);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException {
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling the Kubernetes API", e);
+        }
+    }
+
+    private String token() throws IOException {
+        if (System.nanoTime() - tokenReadAtNanos > TOKEN_REFRESH_INTERVAL.toNanos()) {
+            readToken();
+        }
+        return token;
+    }
+
+    private void readToken() throws IOException {
+        token = Files.readString(Path.of(SERVICE_ACCOUNT_DIR, "token")).trim();
+        tokenReadAtNanos = System.nanoTime();
+    }
+
+    private static SSLContext createSslContext(Path caCertificate) throws IOException {
+        try (InputStream in = Files.newInputStream(caCertificate)) {
+            KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+            trustStore.load(null, null);
+            int index = 0;
+            for (Certificate certificate : CertificateFactory.getInstance("X.509").generateCertificates(in)) {
+                trustStore.setCertificateEntry("kubernetes-ca-" + index++, certificate);
+            }
+            TrustManagerFactory trustManagerFactory =
+                    TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+            trustManagerFactory.init(trustStore);
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to load the Kubernetes CA certificate", e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.iss.bigdata.practice.lease;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps trying to acquire or renew the lease on a virtual thread and notifies
+ * when this replica becomes the leader or stops being the leader.
+ * While leading, the session is checked on every renewal: a dead session is restarted,
+ * and if it keeps dying the lease is released so a standby can take over.
+ * The leader steps down once renewals have failed for leaseDuration - renewInterval,
+ * counted from the start of its last successful renewal, and no renewal may take longer
+ * than that, so it stops before any standby can see the lease as expired.
+ */
+public class LeaderElector implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(LeaderElector.class);
+    private static final int MAX_SESSION_RESTARTS = 3;
+    private final LeaseBackend backend;
+    private final String holderId;
+    private final Duration leaseDuration;
+    private final Duration renewInterval;
+    private final Runnable onElected;
+    private final Runnable onRevoked;
+    private final BooleanSupplier sessionHealthy;
+    private volatile boolean running = false;
+    private volatile boolean leader = false;
+    private Thread electionThread;
+
+    public LeaderElector(LeaseBackend backend, String holderId, Duration leaseDuration, Duration renewInterval,
+                         Runnable onElected, Runnable onRevoked, BooleanSupplier sessionHealthy) {
+        this.backend = backend;
+        this.holderId = holderId;
+        this.leaseDuration = leaseDuration;
+        this.renewInterval = renewInterval;
+        this.onElected = onElected;
+        this.onRevoked = onRevoked;
+        this.sessionHealthy = sessionHealthy;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            logger.warn("Start called but leader election is already running.");
+            return;
+        }
+        running = true;
+        electionThread = Thread.ofVirtual().name("leader-elector").start(this::runElection);
+        logger.info("Leader election started for holder: {}", holderId);
+    }
+
+    public boolean isLeader() {
+        return leader;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runElection() {
+        long lastRenewMillis = 0;
+        long standbyUntilMillis = 0;
+        int sessionRestarts = 0;
+        while (running) {
+            boolean acquired = false;
+            long attemptMillis = System.currentTimeMillis();
+            // keep leading only until the lease we hold could have expired for the other replicas
+            long renewDeadline = lastRenewMillis + leaseDuration.minus(renewInterval).toMillis();
+            if (leader && attemptMillis >= renewDeadline) {
+                logger.warn("Lease could not be renewed before the renew deadline");
+            } else if (attemptMillis >= standbyUntilMillis) {
+                // after stepping down because the session kept dying, let a standby take the lease first
+                Duration timeout = leader ? Duration.ofMillis(renewDeadline - attemptMillis) : renewInterval;
+                try {
+                    acquired = backend.tryAcquire(holderId, leaseDuration, timeout);
+                    if (acquired) {
+                        // the lease was written after the attempt started, so this is on the safe side
+                        lastRenewMillis = attemptMillis;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    logger.error("Error while acquiring or renewing the lease", e);
+                    acquired = leader && System.currentTimeMillis() < renewDeadline;
+                }
+            }
+
+            if (acquired && !leader) {
+                leader = true;
+                sessionRestarts = 0;
+                logger.info("Lease acquired, {} is now the leader", holderId);
+                invokeCallback(onElected);
+            } else if (acquired && !sessionHealthy.getAsBoolean()) {
+                if (sessionRestarts < MAX_SESSION_RESTARTS) {
+                    sessionRestarts++;
+                    logger.warn("Bot session is not running while holding the lease, restarting it ({}/{})",
+                            sessionRestarts, MAX_SESSION_RESTARTS);
+                    invokeCallback(onElected);
+                } else {
+                    logger.error("Bot session failed {} restarts, releasing the lease", MAX_SESSION_RESTARTS);
+                    leader = false;
+                    invokeCallback(onRevoked);
+                    release();
+                    standbyUntilMillis = System.currentTimeMillis() + leaseDuration.toMillis();
+                }
+            } else if (acquired) {
+                sessionRestarts = 0;
+            } else if (leader) {
+                leader = false;
+                logger.warn("Lease lost, {} is now a standby", holderId);
+                invokeCallback(onRevoked);
+            }
+
+            long sleepMillis = renewInterval.toMillis();
+            if (leader) {
+                // wake up in time to step down if the renewals keep failing
+                long untilDeadline = lastRenewMillis + leaseDuration.minus(renewInterval).toMillis()
+                        - System.currentTimeMillis();
+                sleepMillis = Math.max(0, Math.min(sleepMillis, untilDeadline));
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                logger.info("Leader election thread interrupted, likely during shutdown.");
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void invokeCallback(Runnable callback) {
+        try {
+            callback.run();
+        } catch (Exception e) {
+            logger.error("Error in leader election callback", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (electionThread != null) {
+            electionThread.interrupt();
+            try {
+                electionThread.join(2000);
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted while waiting for leader election thread to join.");
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (leader) {
+            leader = false;
+            invokeCallback(onRevoked);
+        }
+        // release only after the session is stopped, so the next leader never overlaps with us
+        release();
+        logger.info("Leader election stopped for holder: {}", holderId);
+    }
+
+    private void release() {
+        try {
+            backend.release(holderId);
+        } catch (IOException e) {
+            logger.error("Failed to release the lease, standbys will take over after it expires", e);
+        }
+    }
+}
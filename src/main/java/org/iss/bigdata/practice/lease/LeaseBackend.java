@@ -0,0 +1,30 @@
+package org.iss.bigdata.practice.lease;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Storage for the single leadership lease shared by all listener replicas
+ */
+public interface LeaseBackend {
+
+    /**
+     * Acquire the lease, or renew it if it is already held by the same holder
+     *
+     * @param holderId      The identity of the replica asking for the lease
+     * @param leaseDuration How long the lease stays valid without being renewed
+     * @param timeout       How long the call may take, the leader passes the time left until it has to step down
+     * @return true if the caller holds the lease after this call
+     * @throws IOException if the lease storage could not be reached in time
+     */
+    boolean tryAcquire(String holderId, Duration leaseDuration, Duration timeout) throws IOException;
+
+    /**
+     * Give up the lease so a standby can take over without waiting for it to expire.
+     * Does nothing if the lease is held by someone else.
+     *
+     * @param holderId The identity of the replica releasing the lease
+     * @throws IOException if the lease storage could not be reached
+     */
+    void release(String holderId) throws IOException;
+}
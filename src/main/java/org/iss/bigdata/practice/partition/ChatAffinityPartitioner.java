@@ -0,0 +1,46 @@
+package org.iss.bigdata.practice.partition;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Kafka partitioner for chat based keys, delegating to ChatPartitionAssigner
+ */
+public class ChatAffinityPartitioner implements Partitioner {
+    private static final Logger logger = LoggerFactory.getLogger(ChatAffinityPartitioner.class);
+    // producer config holding the Map<String, Integer> of pinned partitions from PartitioningConfig
+    public static final String PINNED_PARTITIONS_CONFIG = "chat.affinity.pinned.partitions";
+    private ChatPartitionAssigner assigner = new ChatPartitionAssigner(Map.of());
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object pinned = configs.get(PINNED_PARTITIONS_CONFIG);
+        if (pinned instanceof Map<?, ?> pinnedPartitions) {
+            Map<String, Integer> partitionsByKey = new HashMap<>();
+            pinnedPartitions.forEach((key, partition) ->
+                    partitionsByKey.put(key.toString(), ((Number) partition).intValue()));
+            assigner = new ChatPartitionAssigner(partitionsByKey);
+            logger.info("ChatAffinityPartitioner configured with pinned partitions: {}", partitionsByKey);
+        }
+    }
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int numPartitions = cluster.partitionsForTopic(topic).size();
+        if (keyBytes == null) {
+            return ThreadLocalRandom.current().nextInt(numPartitions);
+        }
+        return assigner.assign(key.toString(), keyBytes, numPartitions);
+    }
+
+    @Override
+    public void close() {
+        // nothing to release, the placement is computed from the key
+    }
+}
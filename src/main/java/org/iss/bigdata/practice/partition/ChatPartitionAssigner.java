@@ -0,0 +1,60 @@
+package org.iss.bigdata.practice.partition;
+
+import org.apache.kafka.common.utils.Utils;
+import org.iss.bigdata.practice.util.Hashing;
+
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Places each key on a partition with rendezvous hashing: every partition gets a score from
+ * the hash of the key and the partition number, and the highest score wins.
+ * The placement only depends on the key, the number of partitions and the configured pins,
+ * so every replica and every restart sends a chat to the same partition.
+ * Hot chats are spread by pinning them to partitions of their own: pinned partitions are left
+ * out for all other keys, so two hot chats never share a partition by hash collision. Because
+ * of the rendezvous hashing, pinning a partition only moves the keys that were placed on it.
+ */
+public class ChatPartitionAssigner {
+    private static final long GOLDEN_RATIO = 0x9e3779b97f4a7c15L;
+    private final Map<String, Integer> pinnedPartitions;
+    private final BitSet reservedPartitions = new BitSet();
+
+    /**
+     * @param pinnedPartitions Partition by record key for the chats that should not share a partition
+     */
+    public ChatPartitionAssigner(Map<String, Integer> pinnedPartitions) {
+        this.pinnedPartitions = Map.copyOf(pinnedPartitions);
+        this.pinnedPartitions.values().forEach(reservedPartitions::set);
+    }
+
+    /**
+     * @param key           The record key
+     * @param keyBytes      The serialized record key
+     * @param numPartitions The current number of partitions of the topic
+     * @return the partition to send the record to
+     */
+    public int assign(String key, byte[] keyBytes, int numPartitions) {
+        Integer pinned = pinnedPartitions.get(key);
+        if (pinned != null && pinned < numPartitions) {
+            return pinned;
+        }
+        // only fall back to the pinned partitions when nothing else is left
+        boolean skipReserved = reservedPartitions.nextClearBit(0) < numPartitions;
+        long keyHash = Utils.murmur2(keyBytes);
+        int best = 0;
+        long bestScore = Long.MIN_VALUE;
+        for (int partition = 0; partition < numPartitions; partition++) {
+            if (skipReserved && reservedPartitions.get(partition)) {
+                continue;
+            }
+            // mixed, so the scores of one key are independent across partitions
+            long score = Hashing.mix(keyHash ^ ((partition + 1) * GOLDEN_RATIO));
+            if (score > bestScore) {
+                bestScore = score;
+                best = partition;
+            }
+        }
+        return best;
+    }
+}
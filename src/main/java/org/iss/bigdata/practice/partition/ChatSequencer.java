@@ -0,0 +1,31 @@
+package org.iss.bigdata.practice.partition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hands out a strictly increasing sequence number per chat, so consumers reading several
+ * partitions in parallel can put a conversation back in order by sorting on it.
+ * Telegram message ids already increase within a chat and survive restarts and failovers,
+ * so they are used as the base and only bumped if an id ever arrives out of order.
+ */
+public class ChatSequencer {
+    private final Map<Long, Long> lastSequenceByChat;
+
+    public ChatSequencer(int maxTrackedChats) {
+        // an evicted chat falls back to its next message id, which is higher unless ids were out of order
+        this.lastSequenceByChat = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > maxTrackedChats;
+            }
+        };
+    }
+
+    public synchronized long next(Long chatId, long messageId) {
+        Long last = lastSequenceByChat.get(chatId);
+        long next = last == null ? messageId : Math.max(last + 1, messageId);
+        lastSequenceByChat.put(chatId, next);
+        return next;
+    }
+}
@@ -0,0 +1,41 @@
+package org.iss.bigdata.practice.partition;
+
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.util.Locale;
+
+/**
+ * What the Kafka record key of a message is made of
+ */
+public enum KeyStrategy {
+    // all messages of a user stay in order, a chat is spread over partitions
+    USER,
+    // all messages of a chat stay in order on one partition
+    CHAT,
+    // messages of a user within a chat stay in order
+    CHAT_USER;
+
+    public static KeyStrategy fromName(String name) {
+        String normalized = name.trim().toUpperCase(Locale.ROOT).replace('+', '_').replace('-', '_');
+        try {
+            return KeyStrategy.valueOf(normalized);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unknown Kafka key strategy: " + name + ", expected user, chat or chat+user");
+        }
+    }
+
+    public String keyFor(Message message) {
+        return switch (this) {
+            case USER -> String.valueOf(message.getFrom().getId());
+            case CHAT -> String.valueOf(message.getChatId());
+            case CHAT_USER -> message.getChatId() + ":" + message.getFrom().getId();
+        };
+    }
+
+    /**
+     * Chat based keys are partitioned by ChatAffinityPartitioner, user keys by the Kafka default
+     */
+    public boolean usesChatAffinity() {
+        return this != USER;
+    }
+}
@@ -14,7 +14,6 @@ import java.util.Random;
  */
 public class MusicRecommendationService {
     private static final Logger logger = LoggerFactory.getLogger(MusicRecommendationService.class);
-    private static final MusicRecommendationService INSTANCE = new MusicRecommendationService();
     // Fallback recommendations when Elasticsearch doesn't return any results
     private static final List<String> FALLBACK_GENERAL_RECOMMENDATIONS = Arrays.asList(
             "Bohemian Rhapsody by Queen",
@@ -34,7 +33,11 @@ public class MusicRecommendationService {
     }
 
     public static MusicRecommendationService getInstance() {
-        return INSTANCE;
+        return Holder.INSTANCE;
+    }
+
+    private static class Holder {
+        private static final MusicRecommendationService INSTANCE = new MusicRecommendationService();
     }
 
     /**
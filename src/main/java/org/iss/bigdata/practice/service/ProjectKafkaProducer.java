@@ -1,40 +1,118 @@
 package org.iss.bigdata.practice.service;
 
+import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.iss.bigdata.practice.config.PartitioningConfig;
+import org.iss.bigdata.practice.config.RuntimeTunables;
+import org.iss.bigdata.practice.partition.ChatAffinityPartitioner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Properties;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class ProjectKafkaProducer {
-    private final KafkaProducer projectKafkaProducer;
+    private static final Logger logger = LoggerFactory.getLogger(ProjectKafkaProducer.class);
+    private final String bootstrapServers;
+    private final String saslUsername;
+    private final String saslPassword;
+    private final PartitioningConfig partitioningConfig;
+    // Sends and warm-ups hold the read lock, swapping or closing the producer holds the write lock
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile KafkaProducer<String, String> projectKafkaProducer;
+
+    public ProjectKafkaProducer(String bootstrapServers, String saslUsername, String saslPassword,
+                                PartitioningConfig partitioningConfig) {
+        this.bootstrapServers = bootstrapServers;
+        this.saslUsername = saslUsername;
+        this.saslPassword = saslPassword;
+        this.partitioningConfig = partitioningConfig;
+        this.projectKafkaProducer = createProducer();
+    }
+
     // Configure Kafka producer
-    public ProjectKafkaProducer(String bootstrapServers, String saslUsername, String saslPassword) {
-        // Configure Kafka producer
+    private KafkaProducer<String, String> createProducer() {
+        RuntimeTunables tunables = RuntimeTunables.getInstance();
         Properties props = new Properties();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class.getName());
         props.put(ProducerConfig.ACKS_CONFIG, "all");
         props.put(ProducerConfig.RETRIES_CONFIG, 3);
-        props.put(ProducerConfig.LINGER_MS_CONFIG, 1);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, tunables.getKafkaLingerMs());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, tunables.getKafkaBatchSize());
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, tunables.getKafkaCompressionType());
+        if (partitioningConfig.getKeyStrategy().usesChatAffinity()) {
+            props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, ChatAffinityPartitioner.class.getName());
+            props.put(ChatAffinityPartitioner.PINNED_PARTITIONS_CONFIG, partitioningConfig.getPinnedPartitions());
+        }
         props.put("security.protocol", "SASL_SSL");
         props.put("sasl.mechanism", "SCRAM-SHA-512");
         props.put("sasl.jaas.config",
                 "org.apache.kafka.common.security.scram.ScramLoginModule required " +
                         "username=" + saslUsername + " password=\"" + saslPassword + "\";");
-        this.projectKafkaProducer = new KafkaProducer<>(props);
+        return new KafkaProducer<>(props);
+    }
 
+    public Future<RecordMetadata> send(ProducerRecord<String, String> record, Callback callback) {
+        swapLock.readLock().lock();
+        try {
+            return projectKafkaProducer.send(record, callback);
+        } finally {
+            swapLock.readLock().unlock();
+        }
     }
 
+    /**
+     * Fetch the topic metadata so the first send does not have to wait for it
+     *
+     * @param topic The topic messages will be sent to
+     * @return the number of partitions of the topic
+     */
+    public int warmUp(String topic) {
+        swapLock.readLock().lock();
+        try {
+            return projectKafkaProducer.partitionsFor(topic).size();
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
 
-    public KafkaProducer getProjectKafkaProducer() {
-        return projectKafkaProducer;
+    /**
+     * Replace the Kafka producer with one built from the current runtime tunables.
+     * The old producer is flushed before the swap, so records keep their order per
+     * partition and none of the records it already accepted are dropped.
+     */
+    public void reconfigure() {
+        KafkaProducer<String, String> newProducer = createProducer();
+        KafkaProducer<String, String> oldProducer;
+        swapLock.writeLock().lock();
+        try {
+            oldProducer = projectKafkaProducer;
+            oldProducer.flush();
+            projectKafkaProducer = newProducer;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        oldProducer.close();
+        logger.info("Kafka producer reconfigured with linger.ms: {}, batch.size: {}, compression.type: {}",
+                RuntimeTunables.getInstance().getKafkaLingerMs(),
+                RuntimeTunables.getInstance().getKafkaBatchSize(),
+                RuntimeTunables.getInstance().getKafkaCompressionType());
     }
 
     public void close() {
-        if (projectKafkaProducer != null) {
+        swapLock.writeLock().lock();
+        try {
             projectKafkaProducer.close();
+        } finally {
+            swapLock.writeLock().unlock();
         }
     }
 
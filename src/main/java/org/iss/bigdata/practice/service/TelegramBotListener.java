@@ -3,8 +3,13 @@ package org.iss.bigdata.practice.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.iss.bigdata.practice.config.PartitioningConfig;
+import org.iss.bigdata.practice.config.RuntimeTunables;
+import org.iss.bigdata.practice.filter.FilteredMessage;
+import org.iss.bigdata.practice.filter.MessageFilterChain;
+import org.iss.bigdata.practice.partition.ChatSequencer;
+import org.iss.bigdata.practice.partition.KeyStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
@@ -13,29 +18,39 @@ import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
 
 
-public class TelegramBotListener extends TelegramLongPollingBot implements AutoCloseable {
+public class TelegramBotListener extends TelegramLongPollingBot {
     private static final Logger logger = LoggerFactory.getLogger(TelegramBotListener.class);
     private final String botUsername;
-    private final Producer<String, String> kafkaProducer;
+    // shared with the session manager, which closes it
+    private final ProjectKafkaProducer kafkaProducer;
     private final String kafkaTopic;
     private final ObjectMapper objectMapper;
     private final MusicRecommendationService recommendationService;
+    private final MessageFilterChain filterChain;
+    private final KeyStrategy keyStrategy;
+    private final ChatSequencer chatSequencer;
 
     // Command constant
     private final String MUSIC_RECOMMEND_COMMAND;
 
     public TelegramBotListener(String botToken, String botUsername,
-                               String kafkaTopic, ProjectKafkaProducer projectKafkaProducer) {
+                               String kafkaTopic, ProjectKafkaProducer projectKafkaProducer,
+                               PartitioningConfig partitioningConfig) {
         super(botToken);
         this.botUsername = botUsername;
         this.MUSIC_RECOMMEND_COMMAND = "@" + botUsername;
         this.kafkaTopic = kafkaTopic;
         this.objectMapper = new ObjectMapper();
         this.recommendationService = MusicRecommendationService.getInstance();
-        this.kafkaProducer = projectKafkaProducer.getProjectKafkaProducer();
+        this.filterChain = MessageFilterChain.getInstance();
+        this.keyStrategy = partitioningConfig.getKeyStrategy();
+        this.chatSequencer = new ChatSequencer(partitioningConfig.getMaxTrackedChats());
+        this.kafkaProducer = projectKafkaProducer;
         logger.info("Kafka producer initialized successfully");
     }
 
@@ -109,35 +124,63 @@ public class TelegramBotListener extends TelegramLongPollingBot implements AutoC
     }
 
     private void sendMessageToKafka(Message message) throws JsonProcessingException {
-        String messageText = message.getText();
-        String jsonMessage = getTelegramJsonMessage(message, messageText);
+        ProducerRecord<String, String> record = toKafkaRecord(message);
+        if (record == null) {
+            return;
+        }
 
         // Send to Kafka
-        String key = String.valueOf(message.getFrom().getId());
-        ProducerRecord<String, String> record =
-                new ProducerRecord<>(kafkaTopic, key, jsonMessage);
-
         kafkaProducer.send(record, (metadata, exception) -> {
             if (exception != null) {
                 logger.error("Error sending message to Kafka", exception);
-            } else {
+            } else if (ThreadLocalRandom.current().nextDouble() < RuntimeTunables.getInstance().getMessageLogSampleRatio()) {
                 logger.info("Message sent to topic: {}, partition: {}, offset: {}",
                         metadata.topic(), metadata.partition(), metadata.offset());
             }
         });
     }
 
-    private String getTelegramJsonMessage(Message message, String messageText) throws JsonProcessingException {
+    /**
+     * Build the Kafka record for a group message, without sending it
+     *
+     * @param message The Telegram group message
+     * @return the record, or null if the filter chain dropped the message
+     */
+    public ProducerRecord<String, String> toKafkaRecord(Message message) throws JsonProcessingException {
+        // Drop noise and normalize the text before it reaches Kafka
+        FilteredMessage filtered = filterChain.process(message);
+        if (filtered == null) {
+            return null;
+        }
+        long chatSequence = chatSequencer.next(message.getChatId(), message.getMessageId());
+        String jsonMessage = getTelegramJsonMessage(message, filtered, chatSequence);
+
+        String key = keyStrategy.keyFor(message);
+        ProducerRecord<String, String> record =
+                new ProducerRecord<>(kafkaTopic, key, jsonMessage);
+        // also as a header, so consumers can order records without parsing the value
+        record.headers().add("chat_seq", String.valueOf(chatSequence).getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+
+    private String getTelegramJsonMessage(Message message, FilteredMessage filtered, long chatSequence)
+            throws JsonProcessingException {
         // Convert to JSON
         ObjectNode jsonNode = objectMapper.createObjectNode();
         jsonNode.put("user_id", message.getFrom().getId());
         String userName = message.getFrom().getUserName() != null ? message.getFrom().getUserName() : "unknown";
         jsonNode.put("username", userName);
-        jsonNode.put("message", messageText);
+        // the text as written, consumers that want the cleaned up text use normalized_message
+        jsonNode.put("message", message.getText());
+        jsonNode.put("normalized_message", filtered.getText());
         jsonNode.put("chat_id", message.getChatId());
+        jsonNode.put("chat_seq", chatSequence);
         String chatTitle = message.getChat().getTitle();
         jsonNode.put("chat_name", chatTitle != null ? chatTitle : "Private Chat");
         jsonNode.put("timestamp", Instant.now().toEpochMilli());
+        // attributes added by the filters, e.g. the script tag, nested so they cannot overwrite the fields above
+        ObjectNode attributes = jsonNode.putObject("attributes");
+        filtered.getAttributes().forEach(attributes::put);
 
         return objectMapper.writeValueAsString(jsonNode);
     }
@@ -164,12 +207,4 @@ public class TelegramBotListener extends TelegramLongPollingBot implements AutoC
             }
         }
     }
-
-    @Override
-    public void close() {
-        if (kafkaProducer != null) {
-            kafkaProducer.close();
-            logger.info("Kafka producer closed");
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package org.iss.bigdata.practice.util;
+
+/**
+ * Hash helpers shared by the message filters and the Kafka partitioner
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * splitmix64 finalizer, spreads inputs that differ in a few bits over the whole long range
+     */
+    public static long mix(long hash) {
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
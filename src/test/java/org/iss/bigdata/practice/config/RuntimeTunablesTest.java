@@ -0,0 +1,99 @@
+package org.iss.bigdata.practice.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RuntimeTunablesTest {
+    private final RuntimeTunables tunables = RuntimeTunables.getInstance();
+    private final List<Consumer<Set<String>>> addedListeners = new ArrayList<>();
+    private Map<String, Object> original;
+
+    @BeforeEach
+    void rememberValues() {
+        original = tunables.snapshot();
+    }
+
+    @AfterEach
+    void restoreValues() {
+        addedListeners.forEach(tunables::removeListener);
+        Map<String, String> values = new LinkedHashMap<>();
+        original.forEach((name, value) -> values.put(name, String.valueOf(value)));
+        tunables.update(values);
+    }
+
+    @Test
+    void appliesAllValuesAndReportsOnlyChangedOnes() {
+        Set<String> changed = tunables.update(Map.of(
+                RuntimeTunables.KAFKA_LINGER_MS, "25",
+                RuntimeTunables.KAFKA_COMPRESSION_TYPE, "lz4",
+                RuntimeTunables.ELASTICSEARCH_URL, "http://localhost:9200/",
+                RuntimeTunables.MESSAGE_LOG_SAMPLE_RATIO, String.valueOf(tunables.getMessageLogSampleRatio())
+        ));
+
+        assertEquals(Set.of(RuntimeTunables.KAFKA_LINGER_MS, RuntimeTunables.KAFKA_COMPRESSION_TYPE,
+                RuntimeTunables.ELASTICSEARCH_URL), changed);
+        assertEquals(25, tunables.getKafkaLingerMs());
+        assertEquals("lz4", tunables.getKafkaCompressionType());
+        assertEquals("http://localhost:9200", tunables.getElasticsearchUrl());
+    }
+
+    @Test
+    void invalidValueRejectsWholeUpdate() {
+        Map<String, String> changes = new LinkedHashMap<>();
+        changes.put(RuntimeTunables.KAFKA_LINGER_MS, "25");
+        changes.put(RuntimeTunables.KAFKA_BATCH_SIZE, "-1");
+
+        assertThrows(IllegalArgumentException.class, () -> tunables.update(changes));
+        assertEquals(original, tunables.snapshot());
+    }
+
+    @Test
+    void elasticsearchUrlNeedsAHost() {
+        for (String url : List.of("http://bad host", "http://", "ftp://localhost:9200", "localhost:9200")) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> tunables.update(Map.of(RuntimeTunables.ELASTICSEARCH_URL, url)), url);
+        }
+        assertEquals(original, tunables.snapshot());
+    }
+
+    @Test
+    void unknownNameRejectsWholeUpdate() {
+        Map<String, String> changes = new LinkedHashMap<>();
+        changes.put(RuntimeTunables.KAFKA_LINGER_MS, "25");
+        changes.put("kafka.acks", "1");
+
+        assertThrows(IllegalArgumentException.class, () -> tunables.update(changes));
+        assertEquals(original, tunables.snapshot());
+    }
+
+    @Test
+    void failingListenerRestoresPreviousValues() {
+        List<Integer> appliedLingerMs = new ArrayList<>();
+        addListener(changed -> appliedLingerMs.add(tunables.getKafkaLingerMs()));
+        addListener(changed -> {
+            throw new IllegalStateException("producer could not be created");
+        });
+
+        assertThrows(IllegalStateException.class,
+                () -> tunables.update(Map.of(RuntimeTunables.KAFKA_LINGER_MS, "25")));
+        assertEquals(original, tunables.snapshot());
+        // the listener that applied the change was called again with the previous values
+        assertEquals(List.of(25, (Integer) original.get(RuntimeTunables.KAFKA_LINGER_MS)), appliedLingerMs);
+    }
+
+    private void addListener(Consumer<Set<String>> listener) {
+        tunables.addListener(listener);
+        addedListeners.add(listener);
+    }
+}
@@ -0,0 +1,84 @@
+package org.iss.bigdata.practice.filter;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MessageFilterChainTest {
+
+    @Test
+    void countsDropsPerFilter() {
+        MessageFilterChain chain = new MessageFilterChain(List.of(
+                new UrlEmojiStripper(),
+                new MinLengthFilter(3, 2)));
+
+        assertNull(chain.process(message("https://example.com")));
+        assertNull(chain.process(message("ok")));
+        assertNull(chain.process(message("absolutely 👍")));
+        assertNotNull(chain.process(message("sounds good")));
+
+        assertEquals(Map.of(
+                "processed", 4L,
+                "forwarded", 1L,
+                "dropped", Map.of(UrlEmojiStripper.NAME, 1L, MinLengthFilter.NAME, 2L)), chain.stats());
+    }
+
+    @Test
+    void laterFiltersSeeTheRewrittenText() {
+        MessageFilterChain chain = new MessageFilterChain(List.of(
+                new UrlEmojiStripper(),
+                new ScriptTagger()));
+
+        FilteredMessage filtered = chain.process(message("🔥 明天见 https://example.com"));
+
+        assertNotNull(filtered);
+        assertEquals("明天见", filtered.getText());
+        assertEquals("han", filtered.getAttributes().get(ScriptTagger.ATTRIBUTE));
+        assertEquals("🔥 明天见 https://example.com", filtered.getMessage().getText());
+    }
+
+    @Test
+    void failingFilterIsSkipped() {
+        MessageFilterChain chain = new MessageFilterChain(List.of(
+                new TestFilter("broken", text -> {
+                    throw new IllegalStateException("filter bug");
+                }),
+                new TestFilter("no-spam", text -> !text.contains("spam"))));
+
+        // the broken filter lets messages through, the filters after it still run
+        assertNotNull(chain.process(message("hello there")));
+        assertNull(chain.process(message("buy spam now")));
+
+        assertEquals(Map.of(
+                "processed", 2L,
+                "forwarded", 1L,
+                "dropped", Map.of("broken", 0L, "no-spam", 1L)), chain.stats());
+    }
+
+    private static Message message(String text) {
+        Message message = new Message();
+        message.setChat(new Chat(-100L, "supergroup"));
+        message.setText(text);
+        return message;
+    }
+
+    private record TestFilter(String name, Predicate<String> accepts) implements MessageFilter {
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean accept(FilteredMessage message) {
+            return accepts.test(message.getText());
+        }
+    }
+}
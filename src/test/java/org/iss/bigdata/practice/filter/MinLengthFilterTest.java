@@ -0,0 +1,49 @@
+package org.iss.bigdata.practice.filter;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinLengthFilterTest {
+    private final MinLengthFilter filter = new MinLengthFilter(3, 2);
+
+    @Test
+    void dropsShortAndOneWordMessages() {
+        assertFalse(filter.accept(message("ok")));
+        assertFalse(filter.accept(message("   hi   ")));
+        assertFalse(filter.accept(message("absolutely")));
+        assertTrue(filter.accept(message("sounds good")));
+    }
+
+    @Test
+    void doesNotCountWordsInScriptsWrittenWithoutSpaces() {
+        assertTrue(filter.accept(message("你好吗")));
+        assertTrue(filter.accept(message("ありがとう")));
+        assertTrue(filter.accept(message("สวัสดีครับ")));
+        assertTrue(filter.accept(message("ສະບາຍດີ")));
+        assertTrue(filter.accept(message("សួស្តី")));
+        assertTrue(filter.accept(message("မင်္ဂလာပါ")));
+    }
+
+    @Test
+    void stillAppliesMinimumLengthToScriptsWrittenWithoutSpaces() {
+        assertFalse(filter.accept(message("好")));
+        assertFalse(filter.accept(message("ดี")));
+    }
+
+    @Test
+    void measuresLengthInCodePoints() {
+        // two supplementary ideographs, four UTF-16 chars
+        assertFalse(filter.accept(message("𠀀𠀁")));
+    }
+
+    private static FilteredMessage message(String text) {
+        Message message = new Message();
+        message.setChat(new Chat(-100L, "supergroup"));
+        message.setText(text);
+        return new FilteredMessage(message);
+    }
+}
@@ -0,0 +1,62 @@
+package org.iss.bigdata.practice.filter;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NearDuplicateFilterTest {
+    private static final long CHAT_ID = -100L;
+    private static final long OTHER_CHAT_ID = -200L;
+    private final NearDuplicateFilter filter = new NearDuplicateFilter(3, 0.8);
+
+    @Test
+    void dropsRepeatedMessage() {
+        assertTrue(filter.accept(message(CHAT_ID, "Has anyone listened to the new album yet?")));
+        assertFalse(filter.accept(message(CHAT_ID, "Has anyone listened to the new album yet?")));
+    }
+
+    @Test
+    void ignoresCaseAndFormatting() {
+        assertTrue(filter.accept(message(CHAT_ID, "Join the listening party tonight at 8")));
+        assertFalse(filter.accept(message(CHAT_ID, "JOIN the listening party, tonight at 8!!!")));
+    }
+
+    @Test
+    void acceptsDifferentMessages() {
+        assertTrue(filter.accept(message(CHAT_ID, "Has anyone listened to the new album yet?")));
+        assertTrue(filter.accept(message(CHAT_ID, "The drummer on the second track is incredible")));
+        assertTrue(filter.accept(message(CHAT_ID, "Has anyone seen the tour dates for next year?")));
+    }
+
+    @Test
+    void keepsChatsApart() {
+        assertTrue(filter.accept(message(CHAT_ID, "Has anyone listened to the new album yet?")));
+        assertTrue(filter.accept(message(OTHER_CHAT_ID, "Has anyone listened to the new album yet?")));
+    }
+
+    @Test
+    void handlesTextShorterThanShingle() {
+        assertTrue(filter.accept(message(CHAT_ID, "lol")));
+        assertFalse(filter.accept(message(CHAT_ID, "LOL")));
+        assertTrue(filter.accept(message(CHAT_ID, "wow")));
+    }
+
+    @Test
+    void forgetsMessagesOutsideWindow() {
+        assertTrue(filter.accept(message(CHAT_ID, "Has anyone listened to the new album yet?")));
+        assertTrue(filter.accept(message(CHAT_ID, "The drummer on the second track is incredible")));
+        assertTrue(filter.accept(message(CHAT_ID, "Tickets for the show go on sale on Friday")));
+        assertTrue(filter.accept(message(CHAT_ID, "My favourite song is still the opening one")));
+        assertTrue(filter.accept(message(CHAT_ID, "Has anyone listened to the new album yet?")));
+    }
+
+    private static FilteredMessage message(long chatId, String text) {
+        Message message = new Message();
+        message.setChat(new Chat(chatId, "supergroup"));
+        message.setText(text);
+        return new FilteredMessage(message);
+    }
+}
@@ -0,0 +1,42 @@
+package org.iss.bigdata.practice.filter;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScriptTaggerTest {
+    private final ScriptTagger filter = new ScriptTagger();
+
+    @Test
+    void tagsTheScriptOfMostLetters() {
+        assertEquals("latin", tag("see you tomorrow"));
+        assertEquals("han", tag("明天见"));
+        assertEquals("cyrillic", tag("до завтра"));
+        assertEquals("thai", tag("แล้วเจอกัน"));
+    }
+
+    @Test
+    void mixedTextIsTaggedWithTheMajorityScript() {
+        assertEquals("han", tag("今天的meeting取消了吗大家"));
+        assertEquals("latin", tag("the 会议 is cancelled"));
+    }
+
+    @Test
+    void textWithoutLettersIsUnknown() {
+        assertEquals("unknown", tag("12:30 !!!"));
+        assertEquals("unknown", tag(""));
+    }
+
+    private String tag(String text) {
+        Message message = new Message();
+        message.setChat(new Chat(-100L, "supergroup"));
+        message.setText(text);
+        FilteredMessage filtered = new FilteredMessage(message);
+        // tagging never drops a message
+        assertTrue(filter.accept(filtered));
+        return filtered.getAttributes().get(ScriptTagger.ATTRIBUTE);
+    }
+}
@@ -0,0 +1,51 @@
+package org.iss.bigdata.practice.filter;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UrlEmojiStripperTest {
+    private final UrlEmojiStripper filter = new UrlEmojiStripper();
+
+    @Test
+    void dropsLinkOnlyMessages() {
+        assertFalse(filter.accept(message("https://example.com/watch?v=1")));
+        assertFalse(filter.accept(message("www.example.com t.me/somechannel")));
+        assertFalse(filter.accept(message("  HTTP://EXAMPLE.COM  ")));
+    }
+
+    @Test
+    void dropsEmojiOnlyMessages() {
+        assertFalse(filter.accept(message("😂😂😂")));
+        // skin tone, zero width joiner sequence and a flag
+        assertFalse(filter.accept(message("👍🏽 👨‍👩‍👧 🇸🇬")));
+        assertFalse(filter.accept(message("❤️ https://example.com")));
+    }
+
+    @Test
+    void keepsTheTextAroundLinksAndEmoji() {
+        FilteredMessage message = message("check this 🔥 https://example.com/a  out");
+
+        assertTrue(filter.accept(message));
+        assertEquals("check this out", message.getText());
+    }
+
+    @Test
+    void keepsSymbolsThatAreNotEmoji() {
+        FilteredMessage message = message("it is 30°C, costs $5 & more");
+
+        assertTrue(filter.accept(message));
+        assertEquals("it is 30°C, costs $5 & more", message.getText());
+    }
+
+    private static FilteredMessage message(String text) {
+        Message message = new Message();
+        message.setChat(new Chat(-100L, "supergroup"));
+        message.setText(text);
+        return new FilteredMessage(message);
+    }
+}
@@ -0,0 +1,184 @@
+package org.iss.bigdata.practice.lease;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class LeaderElectorTest {
+    private static final Duration LEASE_DURATION = Duration.ofMillis(1000);
+    private static final Duration RENEW_INTERVAL = Duration.ofMillis(200);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @TempDir
+    Path tempDir;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    @AfterEach
+    void closeReplicas() {
+        replicas.forEach(replica -> replica.elector.close());
+    }
+
+    @Test
+    void standbyTakesOverWhenLeaderCloses() throws InterruptedException {
+        Replica first = replica("first", new FileLeaseBackend(tempDir.resolve("lease")));
+        first.elector.start();
+        await(first.elector::isLeader);
+
+        Replica second = replica("second", new FileLeaseBackend(tempDir.resolve("lease")));
+        second.elector.start();
+        Thread.sleep(RENEW_INTERVAL.multipliedBy(3));
+        assertFalse(second.elector.isLeader());
+
+        first.elector.close();
+        assertEquals(1, first.revoked.get());
+        // the lease is released, so the standby does not have to wait for it to expire
+        await(second.elector::isLeader, LEASE_DURATION);
+        assertTrue(second.electedAtMillis.get() >= first.revokedAtMillis.get());
+    }
+
+    @Test
+    void leaderStepsDownBeforeStandbySeesTheLeaseExpire() {
+        FailingBackend firstBackend = new FailingBackend(new FileLeaseBackend(tempDir.resolve("lease")));
+        Replica first = replica("first", firstBackend);
+        first.elector.start();
+        await(first.elector::isLeader);
+
+        Replica second = replica("second", new FileLeaseBackend(tempDir.resolve("lease")));
+        second.elector.start();
+
+        // the leader can no longer reach the lease storage and never releases the lease
+        firstBackend.failing.set(true);
+        await(() -> !first.elector.isLeader());
+        await(second.elector::isLeader);
+        assertEquals(1, first.revoked.get());
+        // the old session was stopped before the new one started
+        assertTrue(second.electedAtMillis.get() > first.revokedAtMillis.get());
+    }
+
+    @Test
+    void deadSessionIsRestartedWhileHoldingTheLease() {
+        AtomicInteger starts = new AtomicInteger();
+        AtomicBoolean alive = new AtomicBoolean();
+        // the first session dies right away, the restarted one keeps running
+        Replica replica = replica("first", new FileLeaseBackend(tempDir.resolve("lease")), alive::get,
+                () -> alive.set(starts.incrementAndGet() > 1));
+        replica.elector.start();
+
+        await(() -> starts.get() == 2);
+        assertTrue(replica.elector.isLeader());
+        assertEquals(0, replica.revoked.get());
+    }
+
+    @Test
+    void leaseIsHandedOverWhenSessionKeepsDying() {
+        AtomicInteger starts = new AtomicInteger();
+        Replica first = replica("first", new FileLeaseBackend(tempDir.resolve("lease")), () -> false,
+                starts::incrementAndGet);
+        first.elector.start();
+        await(first.elector::isLeader);
+
+        Replica second = replica("second", new FileLeaseBackend(tempDir.resolve("lease")));
+        second.elector.start();
+
+        await(second.elector::isLeader);
+        assertFalse(first.elector.isLeader());
+        // elected once, then restarted three times before giving up
+        assertEquals(4, starts.get());
+        assertEquals(1, first.revoked.get());
+    }
+
+    private Replica replica(String holderId, LeaseBackend backend) {
+        return replica(holderId, backend, () -> true, () -> {
+        });
+    }
+
+    private Replica replica(String holderId, LeaseBackend backend, BooleanSupplier sessionHealthy,
+                            Runnable onElected) {
+        Replica replica = new Replica(holderId, backend, sessionHealthy, onElected);
+        replicas.add(replica);
+        return replica;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        await(condition, TIMEOUT);
+    }
+
+    private static void await(BooleanSupplier condition, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition not met within " + timeout);
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Interrupted while waiting");
+            }
+        }
+    }
+
+    private static class Replica {
+        private final LeaderElector elector;
+        private final AtomicInteger revoked = new AtomicInteger();
+        private final AtomicLong electedAtMillis = new AtomicLong();
+        private final AtomicLong revokedAtMillis = new AtomicLong();
+
+        private Replica(String holderId, LeaseBackend backend, BooleanSupplier sessionHealthy, Runnable onElected) {
+            this.elector = new LeaderElector(backend, holderId, LEASE_DURATION, RENEW_INTERVAL,
+                    () -> {
+                        electedAtMillis.set(System.currentTimeMillis());
+                        onElected.run();
+                    },
+                    () -> {
+                        revokedAtMillis.set(System.currentTimeMillis());
+                        revoked.incrementAndGet();
+                    },
+                    sessionHealthy);
+        }
+    }
+
+    /**
+     * Simulates a replica cut off from the lease storage
+     */
+    private static class FailingBackend implements LeaseBackend {
+        private final LeaseBackend delegate;
+        private final AtomicBoolean failing = new AtomicBoolean();
+
+        private FailingBackend(LeaseBackend delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean tryAcquire(String holderId, Duration leaseDuration, Duration timeout) throws IOException {
+            if (failing.get()) {
+                throw new IOException("lease storage unreachable");
+            }
+            return delegate.tryAcquire(holderId, leaseDuration, timeout);
+        }
+
+        @Override
+        public void release(String holderId) throws IOException {
+            if (failing.get()) {
+                throw new IOException("lease storage unreachable");
+            }
+            delegate.release(holderId);
+        }
+    }
+}
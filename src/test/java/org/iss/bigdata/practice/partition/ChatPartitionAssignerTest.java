@@ -0,0 +1,95 @@
+package org.iss.bigdata.practice.partition;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatPartitionAssignerTest {
+    private static final int PARTITIONS = 12;
+    private static final int KEYS = 12_000;
+    private final ChatPartitionAssigner assigner = new ChatPartitionAssigner(Map.of());
+
+    @Test
+    void placementOnlyDependsOnKeyAndPartitionCount() {
+        // pinned, so a change of the hashing that would move chats after a deploy fails here
+        assertEquals(7, assign("-1001234567890", PARTITIONS));
+        assertEquals(2, assign("-1009876543210", PARTITIONS));
+        assertEquals(1, assign("-1001234567890:42", PARTITIONS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(assign("-1001234567890", PARTITIONS), assign("-1001234567890", PARTITIONS));
+        }
+    }
+
+    @Test
+    void spreadsKeysEvenly() {
+        int[] counts = new int[PARTITIONS];
+        for (int i = 0; i < KEYS; i++) {
+            counts[assign(chatKey(i), PARTITIONS)]++;
+        }
+        int expected = KEYS / PARTITIONS;
+        for (int count : counts) {
+            assertTrue(Math.abs(count - expected) < expected / 5,
+                    "partition count " + count + " too far from " + expected);
+        }
+    }
+
+    @Test
+    void addingPartitionOnlyMovesKeysToNewPartition() {
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            int before = assign(chatKey(i), PARTITIONS);
+            int after = assign(chatKey(i), PARTITIONS + 1);
+            if (before != after) {
+                assertEquals(PARTITIONS, after);
+                moved++;
+            }
+        }
+        // about one key in thirteen
+        int expected = KEYS / (PARTITIONS + 1);
+        assertTrue(Math.abs(moved - expected) < expected / 5, moved + " keys moved, expected about " + expected);
+    }
+
+    @Test
+    void singlePartitionTakesEveryKey() {
+        assertEquals(0, assign("-1001234567890", 1));
+    }
+
+    @Test
+    void pinnedChatsGetPartitionsOfTheirOwn() {
+        ChatPartitionAssigner pinning = new ChatPartitionAssigner(Map.of("-1001234567890", 3, "-1009876543210", 5));
+        assertEquals(3, assign(pinning, "-1001234567890", PARTITIONS));
+        assertEquals(5, assign(pinning, "-1009876543210", PARTITIONS));
+
+        for (int i = 0; i < KEYS; i++) {
+            int before = assign(chatKey(i), PARTITIONS);
+            int after = assign(pinning, chatKey(i), PARTITIONS);
+            assertTrue(after != 3 && after != 5, "key placed on a pinned partition");
+            // only the keys that were on a pinned partition move
+            if (before != 3 && before != 5) {
+                assertEquals(before, after);
+            }
+        }
+    }
+
+    @Test
+    void pinBeyondPartitionCountFallsBackToHashing() {
+        ChatPartitionAssigner pinning = new ChatPartitionAssigner(Map.of("-1001234567890", PARTITIONS));
+        assertEquals(assign("-1001234567890", PARTITIONS), assign(pinning, "-1001234567890", PARTITIONS));
+    }
+
+    private static String chatKey(int i) {
+        return String.valueOf(-1_001_000_000_000L - i);
+    }
+
+    private int assign(String key, int numPartitions) {
+        return assign(assigner, key, numPartitions);
+    }
+
+    private static int assign(ChatPartitionAssigner assigner, String key, int numPartitions) {
+        return assigner.assign(key, key.getBytes(StandardCharsets.UTF_8), numPartitions);
+    }
+}
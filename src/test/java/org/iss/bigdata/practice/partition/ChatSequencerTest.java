@@ -0,0 +1,45 @@
+package org.iss.bigdata.practice.partition;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChatSequencerTest {
+    private static final long CHAT_ID = -100L;
+    private static final long OTHER_CHAT_ID = -200L;
+
+    @Test
+    void followsMessageIds() {
+        ChatSequencer sequencer = new ChatSequencer(10);
+        assertEquals(5, sequencer.next(CHAT_ID, 5));
+        assertEquals(6, sequencer.next(CHAT_ID, 6));
+        assertEquals(9, sequencer.next(CHAT_ID, 9));
+    }
+
+    @Test
+    void staysStrictlyIncreasingWhenIdsArriveOutOfOrder() {
+        ChatSequencer sequencer = new ChatSequencer(10);
+        assertEquals(10, sequencer.next(CHAT_ID, 10));
+        assertEquals(11, sequencer.next(CHAT_ID, 8));
+        assertEquals(12, sequencer.next(CHAT_ID, 10));
+        assertEquals(20, sequencer.next(CHAT_ID, 20));
+    }
+
+    @Test
+    void keepsChatsApart() {
+        ChatSequencer sequencer = new ChatSequencer(10);
+        assertEquals(10, sequencer.next(CHAT_ID, 10));
+        assertEquals(3, sequencer.next(OTHER_CHAT_ID, 3));
+        assertEquals(11, sequencer.next(CHAT_ID, 4));
+    }
+
+    @Test
+    void evictedChatFallsBackToMessageId() {
+        ChatSequencer sequencer = new ChatSequencer(1);
+        assertEquals(10, sequencer.next(CHAT_ID, 10));
+        assertEquals(11, sequencer.next(CHAT_ID, 8));
+        sequencer.next(OTHER_CHAT_ID, 1);
+        // the chat was forgotten, a new message id continues from the id itself
+        assertEquals(12, sequencer.next(CHAT_ID, 12));
+    }
+}